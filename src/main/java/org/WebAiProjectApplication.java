@@ -4,10 +4,12 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.web.servlet.ServletComponentScan;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableAspectJAutoProxy
 @SpringBootApplication
 @ServletComponentScan//开启了SpringBoot的Servlet组件扫描功能
+@EnableScheduling//开启定时任务
 public class WebAiProjectApplication {
 
     public static void main(String[] args) {
@@ -8,4 +8,18 @@ import java.lang.annotation.Target;
 @Target(ElementType.METHOD) //注解在方法上
 @Retention(RetentionPolicy.RUNTIME) //运行时生效
 public @interface Log {
+
+    /*
+     * 返回值的记录方式
+     * */
+    enum ReturnMode {
+        RECORD, //记录返回值
+        REDACT, //只记录脱敏标记
+        SKIP //不记录
+    }
+
+    ReturnMode returnValue() default ReturnMode.RECORD;
+
+    //参数中需要脱敏的字段名
+    String[] redactFields() default {"password"};
 }
@@ -8,5 +8,5 @@ import java.lang.annotation.Target;
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Permission {
-    String value(); // 权限标识符，如 "emp.create", "emp.delete" 等
+    String[] value(); // 权限标识符，如 "emp.create", "emp.delete" 等；多个时需全部具有
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package org.example.aspect;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.example.utils.LatencyRecorder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 统计所有Controller方法的耗时
+ * 优先级最高，耗时包含权限校验和操作日志
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class LatencyAspect {
+
+    @Autowired
+    private LatencyRecorder latencyRecorder;
+
+    @Around("@within(org.springframework.web.bind.annotation.RestController)")
+    public Object recordLatency(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            String endpoint = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+            latencyRecorder.recordEndpoint(endpoint, System.nanoTime() - start);
+        }
+    }
+}
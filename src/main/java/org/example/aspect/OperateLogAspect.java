@@ -5,9 +5,12 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.example.mapper.OperateLogMapper;
+import org.example.anno.Log;
 import org.example.pojo.OperateLog;
+import org.example.utils.AuditSerializer;
+import org.example.utils.BoundedAuditSerializer;
 import org.example.utils.CurrentHolder;
+import org.example.utils.OperateLogWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
@@ -15,7 +18,7 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.util.Set;
 
 @Slf4j
 @Aspect
@@ -23,25 +26,28 @@ import java.util.Arrays;
 public class OperateLogAspect {
 
     @Autowired
-    private OperateLogMapper operateLogMapper;
+    private OperateLogWriter operateLogWriter;
+    @Autowired
+    private AuditSerializer auditSerializer;
 
     /**
      * 定义切入点：拦截org.example.controller包下所有增删改方法
      */
-    @Around("@annotation(org.example.anno.Log)")
-    public Object recordOperateLog(ProceedingJoinPoint joinPoint) throws Throwable {
+    @Around("@annotation(logAnnotation)")
+    public Object recordOperateLog(ProceedingJoinPoint joinPoint, Log logAnnotation) throws Throwable {
         // 获取方法签名信息
         MethodSignature signature = (MethodSignature) joinPoint.getSignature();
         String className = joinPoint.getTarget().getClass().getName();
         String methodName = signature.getName();
         
-        // 获取请求参数
-        String params = Arrays.toString(joinPoint.getArgs());
-        
         // 获取操作用户ID（从请求头或session中获取）
         HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
         Integer operateEmpId = getOperateEmpId(request);
         
+        // 方法执行前序列化参数，避免记录被目标方法修改后的参数，也不在队列中持有参数对象
+        Set<String> redactFields = Set.of(logAnnotation.redactFields());
+        String methodParams = auditSerializer.serialize(joinPoint.getArgs(), redactFields);
+
         // 记录开始时间
         long startTime = System.currentTimeMillis();
         
@@ -51,24 +57,38 @@ public class OperateLogAspect {
         // 计算执行耗时
         long costTime = System.currentTimeMillis() - startTime;
         
-        // 构建操作日志对象
+        // 构建操作日志对象（返回值按@Log配置有界序列化，在提交前完成，避免异步写入时记录到返回对象之后的状态）
         OperateLog operateLog = new OperateLog();
+        operateLog.setMethodParams(methodParams);
+        operateLog.setReturnValue(returnValue(result, logAnnotation.returnValue(), redactFields));
         operateLog.setOperateEmpId(operateEmpId);
         operateLog.setOperateTime(LocalDateTime.now());
         operateLog.setClassName(className);
         operateLog.setMethodName(methodName);
-        operateLog.setMethodParams(params);
-        operateLog.setReturnValue(result != null ? result.toString() : "null");
         operateLog.setCostTime(costTime);
 
-        // 保存操作日志
-        log.info("记录操作日志：{}", log);
+        // 保存操作日志（异步批量写入，不占用请求线程）
+        log.info("记录操作日志：{}.{}，耗时{}ms", className, methodName, costTime);
 
-        operateLogMapper.insert(operateLog);
+        operateLogWriter.submit(operateLog);
         
         return result;
     }
 
+    /**
+     * 按@Log配置序列化返回值
+     */
+    private String returnValue(Object result, Log.ReturnMode returnMode, Set<String> redactFields) {
+        switch (returnMode) {
+            case SKIP:
+                return "[skipped]";
+            case REDACT:
+                return BoundedAuditSerializer.REDACTED;
+            default:
+                return auditSerializer.serialize(result, redactFields);
+        }
+    }
+
     /**
      * 从请求中获取操作人ID
      * 实际项目中可根据具体认证方式调整
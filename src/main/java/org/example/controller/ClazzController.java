@@ -8,11 +8,12 @@ import org.example.pojo.ClazzQueryParam;
 import org.example.pojo.PageResult;
 import org.example.pojo.Result;
 import org.example.service.ClazzService;
+import org.example.utils.ReferenceDataCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @Slf4j
 @RestController
 @RequestMapping("/clazzs")
@@ -20,6 +21,8 @@ public class ClazzController {
 
     @Autowired
     private ClazzService clazzService;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
 
     /*
     * 班级分页查询
@@ -81,12 +84,11 @@ public class ClazzController {
     }
 
     /*
-    * 查询所有班级
+    * 查询所有班级，返回缓存中序列化好的结果；If-None-Match与ETag一致时返回304
     * */
     @GetMapping("/list")
-    public Result clazzList(){
-        List<Clazz> clazzList = clazzService.clazzList();
-        return Result.success(clazzList);
+    public ResponseEntity<byte[]> clazzList(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        return ReferenceDataCache.toResponse(referenceDataCache.clazzs(), ifNoneMatch);
     }
 
 }
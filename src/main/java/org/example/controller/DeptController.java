@@ -6,11 +6,12 @@ import org.example.anno.Permission;
 import org.example.pojo.Dept;
 import org.example.pojo.Result;
 import org.example.service.DeptService;
+import org.example.utils.ReferenceDataCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @Slf4j
 @RequestMapping("/depts")
 @RestController
@@ -18,14 +19,18 @@ public class DeptController {
 
     @Autowired
     private DeptService deptService;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
 
+    /*
+    * 查询全部部门，返回缓存中序列化好的结果；If-None-Match与ETag一致时返回304
+    * */
 //    @RequestMapping(value = "/depts", method = RequestMethod.GET)
     @GetMapping
     @Permission("dept.list")
-    public Result list(){
+    public ResponseEntity<byte[]> list(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
         System.out.println("查询全部部门数据");
-        List<Dept> deptList = deptService.findAll();
-        return Result.success(deptList);
+        return ReferenceDataCache.toResponse(referenceDataCache.depts(), ifNoneMatch);
     }
 
     /*
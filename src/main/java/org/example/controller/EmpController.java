@@ -1,19 +1,29 @@
 package org.example.controller;
 
+import io.jsonwebtoken.Claims;
 import lombok.extern.slf4j.Slf4j;
 import org.example.anno.Log;
 import org.example.anno.Permission;
+import org.example.event.DataChangeEvent;
 import org.example.mapper.EmpExprMapper;
 import org.example.pojo.*;
+import org.example.service.DeleteJobService;
 import org.example.service.EmpService;
 import org.example.utils.CurrentHolder;
+import org.example.utils.EmpPermissionCache;
+import org.example.utils.EmpPermissionCache.EmpPermission;
+import org.example.utils.ExportWriter;
+import org.example.utils.PermissionRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.util.CollectionUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.List;
-import java.util.Set;
 
 /*
 * 员工管理Controller
@@ -26,7 +36,13 @@ public class EmpController {
     @Autowired
     private EmpService empService;
     @Autowired
+    private DeleteJobService deleteJobService;
+    @Autowired
     private EmpExprMapper empExprMapper;
+    @Autowired
+    private EmpPermissionCache empPermissionCache;
+    @Autowired
+    private PermissionRegistry permissionRegistry;
 
     // 获取当前用户权限的接口
     @GetMapping("/permissions")
@@ -37,48 +53,19 @@ public class EmpController {
             return Result.error("用户未登录");
         }
         
-        // 获取当前用户的角色
-        Emp emp = empService.getInfo(empId);
-        if (emp == null) {
-            return Result.error("用户信息不存在");
+        // 令牌中携带了职位时直接返回该职位的权限
+        Claims claims = CurrentHolder.getCurrentClaims();
+        if (permissionRegistry.hasMaskClaim(claims)) {
+            Integer job = (Integer) claims.get(PermissionRegistry.CLAIM_JOB);
+            return Result.success(permissionRegistry.permissionsOf(job));
         }
-        
-        // 根据用户角色获取权限集合
-        Set<String> permissions = getPermissionsByJob(emp.getJob());
-        return Result.success(permissions);
-    }
-    
-    // 根据职位获取权限集合的方法（从PermissionAspect复制）
-    private Set<String> getPermissionsByJob(Integer job) {
-        // 所有角色都具有基本的查看权限
-        Set<String> basePermissions = Set.of("student.view", "student.list", "report.view", "log.view");
-        
-        // 根据员工职位确定额外权限集合
-        switch (job) {
-            case 1: // 班主任
-                // 班主任具有基本权限加上编辑和创建学生信息的权限
-                return Set.of("student.view", "student.edit", "student.list", "student.create", 
-                             "report.view", "log.view");
-            case 2: // 讲师
-                // 讲师具有基本权限
-                return basePermissions;
-            case 3: // 学工主管
-                // 学工主管具有所有权限
-                return Set.of("emp.view", "emp.edit", "emp.list", "emp.create", "emp.delete", 
-                             "student.view", "student.edit", "student.list", "student.create", "student.delete",
-                             "dept.view", "dept.list", "dept.create", "dept.edit", "dept.delete",
-                             "report.view", "log.view","clazz.create","clazz.edit", "clazz.view", "clazz.list","clazz.delete");
-            case 4: // 教研主管
-                // 教研主管具有基本权限加上课程管理权限
-                return Set.of("course.view", "course.edit", "report.view", "log.view");
-            case 5: // 咨询师
-                // 咨询师具有基本权限加上编辑和创建学生信息的权限
-                return Set.of("student.view", "student.edit", "student.list", "student.create", 
-                             "report.view", "log.view");
-            default:
-                // 普通用户具有基本权限
-                return basePermissions;
+
+        // 获取当前用户的职位及权限（与PermissionAspect共用缓存）
+        EmpPermission empPermission = empPermissionCache.get(empId);
+        if (empPermission == null) {
+            return Result.error("用户信息不存在");
         }
+        return Result.success(empPermission.getPermissions());
     }
 
     @GetMapping
@@ -89,6 +76,27 @@ public class EmpController {
         return Result.success(pageResult);
     }
 
+    /*
+    * 员工导出，查询条件同分页查询，format为csv或xlsx
+    * 在异步线程中边查边写，不占用请求线程
+    * */
+    @GetMapping("/export")
+    @Permission("emp.list")
+    public ResponseEntity<StreamingResponseBody> export(EmpQueryParam empQueryParam,
+                                                        @RequestParam(defaultValue = "csv") String format) {
+        String fmt = ExportWriter.checkFormat(format);
+        log.info("员工导出：{}，{}", fmt, empQueryParam);
+        StreamingResponseBody body = out -> {
+            ExportWriter writer = ExportWriter.of(fmt, out);
+            empService.export(empQueryParam, writer);
+            writer.finish();
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ExportWriter.attachment("emps", fmt))
+                .contentType(MediaType.parseMediaType(ExportWriter.contentType(fmt)))
+                .body(body);
+    }
+
     /*
     * 新增保存员工信息
     * */
@@ -120,6 +128,40 @@ public class EmpController {
         return Result.success();
     }
 
+    /*
+    * 提交后台批量删除任务，按ID列表或查询条件删除，分块执行
+    * 返回任务，通过任务ID查询进度
+    * */
+    @Log
+    @PostMapping("/delete-jobs")
+    @Permission("emp.delete")
+    public Result submitDeleteJob(@RequestBody DeleteJobRequest<EmpQueryParam> request){
+        log.info("提交员工批量删除任务：{}", request);
+        DeleteJob job = deleteJobService.deleteEmps(request);
+        return Result.success(job);
+    }
+
+    /*
+    * 查询批量删除任务进度
+    * */
+    @GetMapping("/delete-jobs/{jobId}")
+    @Permission("emp.delete")
+    public Result getDeleteJob(@PathVariable String jobId){
+        DeleteJob job = deleteJobService.get(DataChangeEvent.EMP, jobId);
+        return job == null ? Result.error("任务不存在") : Result.success(job);
+    }
+
+    /*
+    * 取消批量删除任务，已删除的记录不恢复
+    * */
+    @Log
+    @DeleteMapping("/delete-jobs/{jobId}")
+    @Permission("emp.delete")
+    public Result cancelDeleteJob(@PathVariable String jobId){
+        DeleteJob job = deleteJobService.cancel(DataChangeEvent.EMP, jobId);
+        return job == null ? Result.error("任务不存在") : Result.success(job);
+    }
+
     /*
     * 根据id查询员工信息
     * */
@@ -4,6 +4,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.example.anno.Permission;
 import org.example.mapper.OperateLogMapper;
 import org.example.pojo.OperateLog;
+import org.example.pojo.OperateLogQueryParam;
 import org.example.pojo.PageResult;
 import org.example.pojo.Result;
 import org.example.service.EmpLogService;
@@ -23,11 +24,35 @@ public class LogController {
     @Autowired
     private EmpLogService empLogService;
 
+    /*
+    * 日志分页查询
+    * 传cursor参数（第一页传空值）时使用游标分页，返回nextCursor，默认不统计总数
+    * approxTotal为true时使用表统计信息估算总数
+    * pageSize默认10，超过上限时按上限查询，页码或pageSize小于1时返回400
+    * */
     @GetMapping("/page")
     @Permission("log.view")
-    public Result page(@RequestParam Integer page, @RequestParam Integer pageSize) {
+    public Result page(@RequestParam(defaultValue = "1") Integer page, @RequestParam(required = false) Integer pageSize,
+                       @RequestParam(required = false) String cursor,
+                       @RequestParam(defaultValue = "false") boolean approxTotal) {
+        if (cursor != null) {
+            log.info("日志游标分页查询：{}", cursor);
+            return Result.success(empLogService.pageByCursor(cursor, pageSize, approxTotal));
+        }
         log.info("日志分页查询");
-        PageResult<OperateLog> pageResult = empLogService.page(page, pageSize);
+        PageResult<OperateLog> pageResult = empLogService.page(page, pageSize, approxTotal);
+        return Result.success(pageResult);
+    }
+
+    /*
+    * 日志条件查询：操作人、类名、方法名、操作日期、最小耗时
+    * 只查询未归档的日志，已归档的日志通过/log/page查看
+    * */
+    @GetMapping("/search")
+    @Permission("log.view")
+    public Result search(OperateLogQueryParam operateLogQueryParam) {
+        log.info("日志条件查询：{}", operateLogQueryParam);
+        PageResult<OperateLog> pageResult = empLogService.search(operateLogQueryParam);
         return Result.success(pageResult);
     }
 }
\ No newline at end of file
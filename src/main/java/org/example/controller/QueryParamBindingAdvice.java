@@ -0,0 +1,21 @@
+package org.example.controller;
+
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.InitBinder;
+
+/**
+ * 查询参数绑定规则
+ * 查询参数对象中由服务端解析填充的字段（名称索引解析的ID、游标解析的位置、类名字典解析的类名）不接受请求参数，
+ * 避免客户端直接传入绕过解析；@RequestBody中的同名字段由@JsonIgnore忽略
+ */
+@ControllerAdvice
+public class QueryParamBindingAdvice {
+
+    private static final String[] INTERNAL_FIELDS = {"nameIds", "cursorTime", "cursorId", "classNames"};
+
+    @InitBinder
+    public void disallowInternalFields(WebDataBinder binder) {
+        binder.setDisallowedFields(INTERNAL_FIELDS);
+    }
+}
@@ -1,15 +1,24 @@
 package org.example.controller;
 
 import lombok.extern.slf4j.Slf4j;
+import org.example.anno.Log;
+import org.example.anno.Permission;
 import org.example.pojo.ClazzOption;
 import org.example.pojo.JobOption;
+import org.example.pojo.ReportDashboard;
 import org.example.pojo.Result;
+import org.example.pojo.TrendOption;
+import org.example.service.ReportRollupService;
 import org.example.service.ReportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +29,8 @@ public class ReportController {
 
     @Autowired
     private ReportService reportService;
+    @Autowired
+    private ReportRollupService reportRollupService;
 
     /*
     * 统计员工职位人数
@@ -63,4 +74,51 @@ public class ReportController {
         log.info(degreeList.toString());
         return Result.success(degreeList);
     }
+
+    /*
+    * 统计页面的全部报表，snapshot=true时各报表取自同一时刻的数据
+    * */
+    @GetMapping("/dashboard")
+    public Result dashboard(@RequestParam(defaultValue = "false") boolean snapshot){
+        log.info("统计页面报表，snapshot：{}", snapshot);
+        ReportDashboard dashboard = reportService.dashboard(snapshot);
+        return Result.success(dashboard);
+    }
+
+    /*
+    * 学员人数趋势，interval为day或month，dimension为clazz、degree或不传
+    * */
+    @GetMapping("/trend/students")
+    public Result studentTrend(@DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate begin,
+                               @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate end,
+                               @RequestParam(defaultValue = "month") String interval, String dimension){
+        log.info("学员人数趋势：{} - {}，{}，{}", begin, end, interval, dimension);
+        TrendOption trend = reportRollupService.studentTrend(begin, end, interval, dimension);
+        return Result.success(trend);
+    }
+
+    /*
+    * 员工人数及入职人数趋势，interval为day或month，dimension为job或不传
+    * */
+    @GetMapping("/trend/emps")
+    public Result empTrend(@DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate begin,
+                           @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate end,
+                           @RequestParam(defaultValue = "month") String interval, String dimension){
+        log.info("员工人数趋势：{} - {}，{}，{}", begin, end, interval, dimension);
+        TrendOption trend = reportRollupService.empTrend(begin, end, interval, dimension);
+        return Result.success(trend);
+    }
+
+    /*
+    * 按当前数据重新汇总指定日期范围
+    * */
+    @Log
+    @Permission("report.edit")
+    @PostMapping("/rollup/backfill")
+    public Result backfill(@RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate begin,
+                           @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate end){
+        log.info("重新汇总：{} - {}", begin, end);
+        int days = reportRollupService.backfill(begin, end);
+        return Result.success(days);
+    }
 }
@@ -3,14 +3,29 @@ package org.example.controller;
 import lombok.extern.slf4j.Slf4j;
 import org.example.anno.Log;
 import org.example.anno.Permission;
+import org.example.event.DataChangeEvent;
+import org.example.pojo.DeleteJob;
+import org.example.pojo.DeleteJobRequest;
+import org.example.pojo.ImportResult;
 import org.example.pojo.PageResult;
 import org.example.pojo.Result;
 import org.example.pojo.Student;
 import org.example.pojo.StudentQueryParam;
+import org.example.pojo.SyncResult;
+import org.example.service.DeleteJobService;
 import org.example.service.StudentService;
+import org.example.utils.ExportWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 @Slf4j
@@ -20,6 +35,8 @@ public class StudentController {
 
     @Autowired
     StudentService studentService;
+    @Autowired
+    DeleteJobService deleteJobService;
 
     /*
     * 学员分页显示
@@ -32,6 +49,27 @@ public class StudentController {
         return Result.success(pageResult);
     }
 
+    /*
+    * 学员导出，查询条件同分页查询，format为csv或xlsx
+    * 在异步线程中边查边写，不占用请求线程
+    * */
+    @GetMapping("/export")
+    @Permission("student.list")
+    public ResponseEntity<StreamingResponseBody> export(StudentQueryParam studentQueryParam,
+                                                        @RequestParam(defaultValue = "csv") String format) {
+        String fmt = ExportWriter.checkFormat(format);
+        log.info("学员导出：{}，{}", fmt, studentQueryParam);
+        StreamingResponseBody body = out -> {
+            ExportWriter writer = ExportWriter.of(fmt, out);
+            studentService.export(studentQueryParam, writer);
+            writer.finish();
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ExportWriter.attachment("students", fmt))
+                .contentType(MediaType.parseMediaType(ExportWriter.contentType(fmt)))
+                .body(body);
+    }
+
     /*
     * 根据ID查询
     * */
@@ -65,6 +103,45 @@ public class StudentController {
         return Result.success();
     }
 
+    /*
+    * 批量导入，文件为csv或xlsx，列名与导出文件一致
+    * 返回成功、失败行数及失败明细
+    * */
+    @Log
+    @PostMapping("/import")
+    @Permission("student.create")
+    public Result importStudents(MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) {
+            return Result.error("请选择导入文件");
+        }
+        String filename = file.getOriginalFilename();
+        String format = ExportWriter.checkFormat(filename != null && filename.contains(".")
+                ? filename.substring(filename.lastIndexOf('.') + 1) : ExportWriter.CSV);
+        log.info("学员导入：{}，{}字节", filename, file.getSize());
+        //先落到临时文件再流式解析，xlsx需要随机访问压缩包
+        Path tmp = Files.createTempFile("student-import-", "." + format);
+        try {
+            file.transferTo(tmp);
+            ImportResult importResult = studentService.importStudents(tmp, format);
+            return Result.success(importResult);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /*
+    * 按学号批量同步（外部学籍系统推送），学号不存在的新增，存在且内容变化的修改，未变化的不写入
+    * 返回新增、修改、未变化的条数；同一批数据重复提交是幂等的
+    * */
+    @Log
+    @PostMapping("/sync")
+    @Permission({"student.create", "student.edit"})
+    public Result sync(@RequestBody List<Student> students){
+        log.info("学员同步：{}条", students.size());
+        SyncResult syncResult = studentService.sync(students);
+        return Result.success(syncResult);
+    }
+
     /*
     * 批量删除
     * */
@@ -75,6 +152,39 @@ public class StudentController {
         return Result.success();
     }
 
+    /*
+    * 提交后台批量删除任务，按ID列表或查询条件删除，分块执行
+    * 返回任务，通过任务ID查询进度
+    * */
+    @Log
+    @PostMapping("/delete-jobs")
+    @Permission("student.delete")
+    public Result submitDeleteJob(@RequestBody DeleteJobRequest<StudentQueryParam> request){
+        DeleteJob job = deleteJobService.deleteStudents(request);
+        return Result.success(job);
+    }
+
+    /*
+    * 查询批量删除任务进度
+    * */
+    @GetMapping("/delete-jobs/{jobId}")
+    @Permission("student.delete")
+    public Result getDeleteJob(@PathVariable String jobId){
+        DeleteJob job = deleteJobService.get(DataChangeEvent.STUDENT, jobId);
+        return job == null ? Result.error("任务不存在") : Result.success(job);
+    }
+
+    /*
+    * 取消批量删除任务，已删除的记录不恢复
+    * */
+    @Log
+    @DeleteMapping("/delete-jobs/{jobId}")
+    @Permission("student.delete")
+    public Result cancelDeleteJob(@PathVariable String jobId){
+        DeleteJob job = deleteJobService.cancel(DataChangeEvent.STUDENT, jobId);
+        return job == null ? Result.error("任务不存在") : Result.success(job);
+    }
+
     /*
     * 违纪处理
     * */
@@ -0,0 +1,83 @@
+package org.example.controller;
+
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.example.event.DataChangeEvent;
+import org.example.pojo.NameSuggestion;
+import org.example.pojo.Result;
+import org.example.utils.CurrentHolder;
+import org.example.utils.EmpPermissionCache;
+import org.example.utils.EmpPermissionCache.EmpPermission;
+import org.example.utils.NameIndexRegistry;
+import org.example.utils.PermissionRegistry;
+import org.example.utils.PinyinTrie;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+* 员工、学员姓名输入联想Controller
+* */
+@Slf4j
+@RestController
+@RequestMapping("/suggest")
+public class SuggestController {
+
+    //单次最多返回的条数
+    private static final int MAX_LIMIT = 50;
+
+    @Autowired
+    private NameIndexRegistry nameIndexRegistry;
+    @Autowired
+    private EmpPermissionCache empPermissionCache;
+    @Autowired
+    private PermissionRegistry permissionRegistry;
+
+    /*
+    * 按拼音全拼、首字母或姓名前缀联想，如zs、zhangs、张
+    * 只返回当前用户有列表查询权限（emp.list、student.list）的类型，员工和学员交替排列
+    * */
+    @GetMapping
+    public Result suggest(@RequestParam String keyword, @RequestParam(defaultValue = "10") Integer limit) {
+        Integer empId = CurrentHolder.getCurrentId();
+        if (empId == null) {
+            return Result.error("用户未登录");
+        }
+
+        // 获取当前用户权限掩码，与PermissionAspect一致
+        long mask;
+        Claims claims = CurrentHolder.getCurrentClaims();
+        if (permissionRegistry.hasMaskClaim(claims)) {
+            mask = permissionRegistry.maskOf(claims);
+        } else {
+            EmpPermission empPermission = empPermissionCache.get(empId);
+            if (empPermission == null) {
+                return Result.error("用户信息不存在");
+            }
+            mask = empPermission.getMask();
+        }
+
+        int n = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<PinyinTrie.Match> emps = permissionRegistry.hasPermission(mask, "emp.list")
+                ? nameIndexRegistry.suggest(DataChangeEvent.EMP, keyword, n) : Collections.emptyList();
+        List<PinyinTrie.Match> students = permissionRegistry.hasPermission(mask, "student.list")
+                ? nameIndexRegistry.suggest(DataChangeEvent.STUDENT, keyword, n) : Collections.emptyList();
+
+        List<NameSuggestion> result = new ArrayList<>(n);
+        for (int i = 0; result.size() < n && (i < emps.size() || i < students.size()); i++) {
+            if (i < emps.size()) {
+                result.add(new NameSuggestion(DataChangeEvent.EMP, emps.get(i).getId(), emps.get(i).getName()));
+            }
+            if (i < students.size() && result.size() < n) {
+                result.add(new NameSuggestion(DataChangeEvent.STUDENT, students.get(i).getId(), students.get(i).getName()));
+            }
+        }
+        return Result.success(result);
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 数据变更事件
+ * Service在新增、修改、删除后发布，只携带变更的表和ID；
+ * 监听方在事务提交后(@TransactionalEventListener)按ID重新查询，查不到的即为已删除
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class DataChangeEvent {
+
+    public static final String EMP = "emp";
+    public static final String STUDENT = "student";
+    public static final String CLAZZ = "clazz";
+    public static final String DEPT = "dept";
+
+    private final String table; //变更的表
+    private final List<Integer> ids; //变更的ID
+}
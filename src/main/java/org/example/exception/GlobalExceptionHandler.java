@@ -27,6 +27,26 @@ public class GlobalExceptionHandler {
         return Result.error("权限不足: " + e.getMessage());
     }
 
+    /**
+     * 请求参数错误（400）
+     */
+    @ExceptionHandler(BadRequestException.class)
+    public Result handleBadRequestException(BadRequestException e,
+                                            HttpServletResponse response) {
+        log.warn("请求参数错误: {}", e.getMessage());
+        response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        return Result.error(e.getMessage());
+    }
+
+    /**
+     * 业务异常，直接返回异常信息
+     */
+    @ExceptionHandler(BusinessException.class)
+    public Result handleBusinessException(BusinessException e) {
+        log.warn("业务异常: {}", e.getMessage());
+        return Result.error(e.getMessage());
+    }
+
     /**
      * 唯一键冲突异常（如用户名重复）
      */
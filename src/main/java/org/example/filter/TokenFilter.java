@@ -3,7 +3,9 @@ package org.example.filter;
 import io.jsonwebtoken.Claims;
 import lombok.extern.slf4j.Slf4j;
 import org.example.utils.CurrentHolder;
-import org.example.utils.JwtUtils;
+import org.example.utils.PermissionRegistry;
+import org.example.utils.TokenCache;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import javax.servlet.*;
 import javax.servlet.annotation.WebFilter;
@@ -14,6 +16,12 @@ import java.io.IOException;
 @Slf4j
 @WebFilter(urlPatterns = "/*")
 public class TokenFilter implements Filter {
+
+    @Autowired
+    private TokenCache tokenCache;
+    @Autowired
+    private PermissionRegistry permissionRegistry;
+
     @Override
     public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain) throws IOException, ServletException {
         HttpServletRequest request = (HttpServletRequest) servletRequest;
@@ -43,9 +51,16 @@ public class TokenFilter implements Filter {
 
         //5.token存在，校验令牌，失败就返回错误信息
         try {
-            Claims claims = JwtUtils.parseToken(token);
+            Claims claims = tokenCache.parse(token);
+            //权限表变更前签发的令牌，要求重新登录
+            if (permissionRegistry.isStale(claims)) {
+                log.info("令牌权限版本已过期，响应401");
+                response.setStatus(401);
+                return;
+            }
             Integer empId = Integer.valueOf(claims.get("id").toString());
             CurrentHolder.setCurrentId(empId);
+            CurrentHolder.setCurrentClaims(claims);
             log.info("当前登录员工ID：{}",empId);
         } catch (Exception e) {
             log.info("令牌非法，响应401");
@@ -1,7 +1,8 @@
 package org.example.interceptor;
 
 import lombok.extern.slf4j.Slf4j;
-import org.example.utils.JwtUtils;
+import org.example.utils.TokenCache;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
@@ -15,6 +16,9 @@ import javax.servlet.http.HttpServletResponse;
 @Component
 public class TokenInterceptor implements HandlerInterceptor {
 
+    @Autowired
+    private TokenCache tokenCache;
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         //3.获取请求头中的token
@@ -29,7 +33,7 @@ public class TokenInterceptor implements HandlerInterceptor {
 
         //5.token存在，校验令牌，失败就返回错误信息
         try {
-            JwtUtils.parseToken(token);
+            tokenCache.parse(token);
         } catch (Exception e) {
             log.info("令牌非法，响应401");
             response.setStatus(401);
@@ -1,8 +1,10 @@
 package org.example.mapper;
 
 import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.MapKey;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Select;
 import org.example.pojo.Clazz;
 import org.example.pojo.ClazzQueryParam;
@@ -21,8 +23,9 @@ public interface ClazzMapper {
     /*
     * 新增班级信息
     * */
-    @Select("INSERT INTO clazz (name, room, begin_date, end_date, master_id, subject, create_time, update_time) \n" +
+    @Insert("INSERT INTO clazz (name, room, begin_date, end_date, master_id, subject, create_time, update_time) \n" +
             "VALUES (#{name}, #{room}, #{beginDate}, #{endDate}, #{masterId}, #{subject}, NOW(), NOW())")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
     public void insertClazz(Clazz clazz);
 
     /*
@@ -54,4 +57,15 @@ public interface ClazzMapper {
     * */
     @MapKey("name")
     List<Map<String, Object>> studentCountData();
+
+    /*
+    * 查询所有班级的ID和名称，用于加载名称索引
+    * */
+    @Select("SELECT id, name FROM clazz")
+    List<Clazz> listNames();
+
+    /*
+    * 根据ID批量查询班级
+    * */
+    List<Clazz> selectByIds(List<Integer> ids);
 }
@@ -27,6 +27,7 @@ public interface DeptMapper {
      * 新增部门
      * */
     @Insert("insert into dept(name, create_time, update_time) values (#{name}, #{createTime}, #{updateTime})")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
     void insert(Dept dept);
 
     @Select("select id, name, create_time, update_time from dept where id = #{id}")
@@ -4,10 +4,15 @@ import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.example.pojo.EmpLog;
 
+import java.util.List;
+
 @Mapper
 public interface EmpLogMapper {
 
     @Insert("insert into emp_log (operate_time, info) values (#{operateTime}, #{info})")
     public void insert(EmpLog empLog);
 
+    //批量插入员工操作日志
+    public void insertBatch(List<EmpLog> logs);
+
 }
@@ -2,7 +2,10 @@ package org.example.mapper;
 
 import org.apache.ibatis.annotations.MapKey;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
 import org.example.pojo.Emp;
 import org.example.pojo.EmpQueryParam;
 
@@ -25,6 +28,16 @@ public interface EmpMapper {
 
     public List<Emp> list(EmpQueryParam empQueryParam);
 
+    /*
+    * 按查询条件流式读取员工（导出），不包含密码
+    * */
+    Cursor<Emp> cursorList(EmpQueryParam empQueryParam);
+
+    /*
+    * 按查询条件流式读取员工ID（后台批量删除）
+    * */
+    Cursor<Integer> cursorIds(EmpQueryParam empQueryParam);
+
     /*
     * 新增员工信息
     * */
@@ -52,6 +65,25 @@ public interface EmpMapper {
     @MapKey("pos")
     List<Map<String, Object>> countEmpJobData();
 
+    /*
+    * 流式读取所有员工的ID、职位和性别，用于加载统计聚合
+    * */
+    @Select("SELECT id, job, gender FROM emp")
+    @Options(fetchSize = Integer.MIN_VALUE, resultSetType = ResultSetType.FORWARD_ONLY)
+    Cursor<Emp> cursorReportKeys();
+
+    /*
+    * 按职位编码统计人数(k:职位, v:人数)，用于核对统计聚合
+    * */
+    @Select("SELECT job k, COUNT(*) v FROM emp GROUP BY job")
+    List<Map<String, Object>> countByJob();
+
+    /*
+    * 按性别编码统计人数(k:性别, v:人数)，用于核对统计聚合
+    * */
+    @Select("SELECT gender k, COUNT(*) v FROM emp GROUP BY gender")
+    List<Map<String, Object>> countByGender();
+
     /*
     * 统计员工性别
     * */
@@ -70,6 +102,17 @@ public interface EmpMapper {
     @Select("SELECT * from emp where username = #{username} and password = #{password}")
     Emp selectByUsernameAndPassword(String username, String password);
     
+    /*
+     * 查询所有员工的ID和姓名，用于加载名称索引
+     * */
+    @Select("SELECT id, name from emp")
+    List<Emp> listNames();
+
+    /*
+     * 根据ID批量查询员工基本信息
+     * */
+    List<Emp> selectByIds(List<Integer> ids);
+
     /*
      * 根据ID查询员工职位
      * */
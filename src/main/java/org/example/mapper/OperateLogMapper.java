@@ -3,8 +3,11 @@ package org.example.mapper;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
 import org.example.pojo.OperateLog;
+import org.example.pojo.OperateLogQueryParam;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Mapper
@@ -15,8 +18,49 @@ public interface OperateLogMapper {
             "values (#{operateEmpId}, #{operateTime}, #{className}, #{methodName}, #{methodParams}, #{returnValue}, #{costTime});")
     public void insert(OperateLog log);
 
+    //批量插入日志数据
+    public void insertBatch(List<OperateLog> logs);
+
     //查询日志数据
 //    @Select("SELECT * FROM operate_log ORDER BY operate_time DESC")
-    @Select("SELECT o.*,e.name as operate_emp_name FROM operate_log o LEFT JOIN emp e on o.operate_emp_id=e.id ORDER BY o.operate_time DESC")
+    @Select("SELECT o.*,e.name as operate_emp_name FROM operate_log o LEFT JOIN emp e on o.operate_emp_id=e.id ORDER BY o.operate_time DESC, o.id DESC")
     public List<OperateLog> list();
+
+    //游标分页查询日志数据，按(operate_time, id)倒序，cursorTime为null时查询第一页
+    public List<OperateLog> listByCursor(LocalDateTime cursorTime, Integer cursorId, Integer limit);
+
+    //查询最早的日志时间
+    @Select("select min(operate_time) from operate_log")
+    public LocalDateTime selectMinOperateTime();
+
+    //流式查询时间范围内的日志数据，按(operate_time, id)倒序
+    public Cursor<OperateLog> cursorByTime(LocalDateTime begin, LocalDateTime end);
+
+    //根据ID批量删除日志数据
+    public int deleteByIds(List<Integer> ids);
+
+    //查询最近的日志（不含参数和返回值），用于预热日志索引
+    @Select("select id, operate_emp_id, operate_time, class_name, method_name, cost_time from operate_log order by id desc limit #{limit}")
+    public List<OperateLog> listRecent(Integer limit);
+
+    //查询日志中出现过的全部类名
+    @Select("select distinct class_name from operate_log where class_name is not null")
+    public List<String> listClassNames();
+
+    //统计不晚于指定位置（按(operate_time, id)倒序排在其后）的日志条数
+    @Select("select count(*) from operate_log where operate_time < #{time} or (operate_time = #{time} and id <= #{id})")
+    public long countNotAfter(LocalDateTime time, Integer id);
+
+    //查询ID小于指定值的日志的最大时间
+    @Select("select max(operate_time) from operate_log where id < #{id}")
+    public LocalDateTime selectMaxOperateTimeBefore(Integer id);
+
+    //根据ID批量查询日志数据
+    public List<OperateLog> selectByIds(List<Integer> ids);
+
+    //条件查询ID小于beforeId的日志数据，按ID倒序
+    public List<OperateLog> search(OperateLogQueryParam param, Integer beforeId, Long offset, Integer limit);
+
+    //条件统计ID小于beforeId的日志条数
+    public Long countSearch(OperateLogQueryParam param, Integer beforeId);
 }
\ No newline at end of file
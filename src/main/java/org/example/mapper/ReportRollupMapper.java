@@ -0,0 +1,88 @@
+package org.example.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.pojo.ReportEmpDaily;
+import org.example.pojo.ReportStudentDaily;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/*
+* 每日汇总表：report_student_daily（学员按班级、学历）、report_emp_daily（员工按职位）
+* */
+@Mapper
+public interface ReportRollupMapper {
+
+    /*
+    * 已汇总的最后一天，没有汇总时返回null
+    * */
+    LocalDate maxStudentStatDate();
+
+    LocalDate maxEmpStatDate();
+
+    /*
+    * 最早的学员创建日期、员工入职日期，回溯汇总从这一天开始
+    * */
+    LocalDate minStudentCreateDate();
+
+    LocalDate minEmpEntryDate();
+
+    /*
+    * 删除日期范围内的汇总
+    * */
+    int deleteStudentDays(@Param("begin") LocalDate begin, @Param("end") LocalDate end);
+
+    int deleteEmpDays(@Param("begin") LocalDate begin, @Param("end") LocalDate end);
+
+    /*
+    * 指定日期之前的学员、员工人数，按维度分组
+    * */
+    List<ReportStudentDaily> studentHeadcountsBefore(LocalDate day);
+
+    List<ReportEmpDaily> empHeadcountsBefore(LocalDate day);
+
+    /*
+    * 日期范围内每天的新增、毕业、入职人数，按天和维度分组
+    * */
+    List<ReportStudentDaily> studentEnrolledByDay(@Param("begin") LocalDate begin, @Param("next") LocalDate next);
+
+    List<ReportStudentDaily> studentGraduatedByDay(@Param("begin") LocalDate begin, @Param("end") LocalDate end);
+
+    List<ReportEmpDaily> empHiredByDay(@Param("begin") LocalDate begin, @Param("end") LocalDate end);
+
+    /*
+    * 批量写入汇总行
+    * */
+    int insertStudentDaily(@Param("rows") List<ReportStudentDaily> rows);
+
+    int insertEmpDaily(@Param("rows") List<ReportEmpDaily> rows);
+
+    /*
+    * 按期汇总新增、毕业人数
+    * @param pattern 期的格式，%Y-%m-%d或%Y-%m
+    * @param dimension clazz、degree或null（不分组）
+    * */
+    List<Map<String, Object>> studentFlows(@Param("begin") LocalDate begin, @Param("end") LocalDate end,
+                                           @Param("pattern") String pattern, @Param("dimension") String dimension);
+
+    /*
+    * 指定各天的学员人数
+    * */
+    List<Map<String, Object>> studentHeadcounts(@Param("days") List<LocalDate> days, @Param("pattern") String pattern,
+                                                @Param("dimension") String dimension);
+
+    /*
+    * 按期汇总入职人数
+    * @param dimension job或null（不分组）
+    * */
+    List<Map<String, Object>> empFlows(@Param("begin") LocalDate begin, @Param("end") LocalDate end,
+                                       @Param("pattern") String pattern, @Param("dimension") String dimension);
+
+    /*
+    * 指定各天的员工人数
+    * */
+    List<Map<String, Object>> empHeadcounts(@Param("days") List<LocalDate> days, @Param("pattern") String pattern,
+                                            @Param("dimension") String dimension);
+}
@@ -2,7 +2,11 @@ package org.example.mapper;
 
 import org.apache.ibatis.annotations.MapKey;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
 import org.example.pojo.Student;
 import org.example.pojo.StudentQueryParam;
 
@@ -23,6 +27,16 @@ public interface StudentMapper {
     * */
     List<Student> page(StudentQueryParam param);
 
+    /*
+     * 按查询条件流式读取学员（导出）
+     * */
+    Cursor<Student> cursorPage(StudentQueryParam param);
+
+    /*
+     * 按查询条件流式读取学员ID（后台批量删除）
+     * */
+    Cursor<Integer> cursorIds(StudentQueryParam param);
+
     /*
     * 根据id查询学员
     * */
@@ -44,6 +58,36 @@ public interface StudentMapper {
     * */
     void deleteBatch(List<Long> ids);
 
+    /*
+    * 批量导入时插入一条学员，所有列固定，便于批量执行
+    * */
+    void importInsert(Student student);
+
+    /*
+    * 根据学号批量查询学员的ID和学号
+    * */
+    List<Student> selectByNos(List<String> nos);
+
+    /*
+    * 根据学号批量查询学员的同步字段
+    * */
+    List<Student> selectSyncByNos(List<String> nos);
+
+    /*
+    * 按手机号或身份证号查询学员的ID、学号、手机号和身份证号
+    * */
+    List<Student> selectByPhonesOrIdCards(@Param("phones") List<String> phones, @Param("idCards") List<String> idCards);
+
+    /*
+    * 同步时批量新增
+    * */
+    void syncInsertBatch(List<Student> students);
+
+    /*
+    * 同步时按学号修改
+    * */
+    int syncUpdate(Student student);
+
     /*
      * 违纪处理
      * */
@@ -52,4 +96,34 @@ public interface StudentMapper {
     @MapKey("name")
     List<Map<String, Object>> studentDegreeData();
 
+    /*
+     * 流式读取所有学员的ID、学历和班级，用于加载统计聚合
+     * */
+    @Select("SELECT id, degree, clazz_id FROM student")
+    @Options(fetchSize = Integer.MIN_VALUE, resultSetType = ResultSetType.FORWARD_ONLY)
+    Cursor<Student> cursorReportKeys();
+
+    /*
+     * 按学历编码统计人数(k:学历, v:人数)，用于核对统计聚合
+     * */
+    @Select("SELECT degree k, COUNT(*) v FROM student GROUP BY degree")
+    List<Map<String, Object>> countByDegree();
+
+    /*
+     * 按班级统计人数(k:班级ID, v:人数)，用于核对统计聚合
+     * */
+    @Select("SELECT clazz_id k, COUNT(*) v FROM student GROUP BY clazz_id")
+    List<Map<String, Object>> countByClazz();
+
+    /*
+     * 查询所有学员的ID和姓名，用于加载名称索引
+     * */
+    @Select("SELECT id, name FROM student")
+    List<Student> listNames();
+
+    /*
+     * 根据ID批量查询学员
+     * */
+    List<Student> selectByIds(List<Integer> ids);
+
 }
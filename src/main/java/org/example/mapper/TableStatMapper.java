@@ -0,0 +1,17 @@
+package org.example.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+
+/*
+* 表统计信息
+* */
+@Mapper
+public interface TableStatMapper {
+
+    /*
+     * 根据information_schema估算表行数（InnoDB为采样估计值，不需要扫描全表）
+     * */
+    @Select("SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = #{tableName}")
+    Long approximateRows(String tableName);
+}
@@ -23,5 +23,6 @@ public class Clazz {
 
     private String masterName; //班主任姓名
     private String status; //班级状态 - 未开班 , 在读 , 已结课
+    private Integer studentCount; //学员人数，查询时指定withStudentCount才返回
 }
 
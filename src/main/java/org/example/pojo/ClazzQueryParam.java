@@ -1,11 +1,13 @@
 package org.example.pojo;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @Data
 @AllArgsConstructor
@@ -20,4 +22,11 @@ public class ClazzQueryParam {
     //结课时间
     @DateTimeFormat(pattern = "yyyy-MM-dd")
     private LocalDate end;
+    //由名称索引解析：名称包含关键字的ID，非null时代替名称模糊查询
+    @JsonIgnore
+    private List<Integer> nameIds;
+    //无筛选条件时使用表统计信息估算总数
+    private boolean approxTotal;
+    //是否返回每个班级的学员人数
+    private boolean withStudentCount;
 }
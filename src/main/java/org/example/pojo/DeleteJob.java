@@ -0,0 +1,36 @@
+package org.example.pojo;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/*
+* 后台批量删除任务，轮询查询进度
+* */
+@Data
+public class DeleteJob {
+
+    /*
+    * 任务状态
+    * */
+    public enum Status {
+        QUEUED, //排队中
+        RUNNING, //删除中
+        DONE, //已完成
+        CANCELLED, //已取消
+        FAILED //失败，已删除的部分不回滚
+    }
+
+    private String id; //任务ID
+    private String table; //删除的表，emp或student
+    private volatile Status status = Status.QUEUED; //状态
+    private volatile int total; //待删除的记录数，按条件删除时在开始执行后确定
+    private volatile int processed; //已处理的记录数
+    private volatile String message; //失败原因
+    private LocalDateTime createTime; //提交时间
+    private volatile LocalDateTime startTime; //开始时间
+    private volatile LocalDateTime finishTime; //结束时间
+    @JsonIgnore
+    private volatile boolean cancelRequested; //已请求取消，当前块删除完成后停止
+}
@@ -0,0 +1,19 @@
+package org.example.pojo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/*
+* 批量删除任务请求：指定ID列表，或按查询条件删除（至少包含一个条件）
+* @param <Q> 查询条件，与分页查询相同
+* */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeleteJobRequest<Q> {
+    private List<Integer> ids; //待删除的ID，非空时忽略filter
+    private Q filter; //查询条件
+}
@@ -1,11 +1,14 @@
 package org.example.pojo;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @AllArgsConstructor
@@ -19,4 +22,13 @@ public class EmpQueryParam {
     private LocalDate begin; // AIRE#
     @DateTimeFormat(pattern = "yyyy-MM-dd")
     private LocalDate end;// 入职日期
+    @JsonIgnore
+    private List<Integer> nameIds;// 由名称索引解析：名称包含关键字的ID，非null时代替名称模糊查询
+    private boolean approxTotal;// 无筛选条件时使用表统计信息估算总数
+    private String cursor;// 游标分页的续传令牌，传入时按(update_time, id)游标分页，第一页传空值
+    private boolean withTotal;// 游标分页时是否统计总数
+    @JsonIgnore
+    private LocalDateTime cursorTime;// 由cursor解析：上一页最后一条的修改时间
+    @JsonIgnore
+    private Integer cursorId;// 由cursor解析：上一页最后一条的ID
 }
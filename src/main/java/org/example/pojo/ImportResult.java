@@ -0,0 +1,43 @@
+package org.example.pojo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+* 批量导入结果
+* */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResult {
+    public static final int MAX_ERRORS = 1000; //失败明细最多保留的条数，超出的只计入failed
+    private int total; //数据行数（不含表头）
+    private int success; //导入成功的行数
+    private int failed; //失败的行数
+    private List<RowError> errors = new ArrayList<>(); //失败明细，按行号排序，最多返回MAX_ERRORS条
+
+    /*
+    * 添加一条失败明细，已满MAX_ERRORS条时丢弃，保证文件再大明细列表也有上限
+    * */
+    public static void addError(List<RowError> errors, RowError error) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    /*
+    * 失败行
+    * */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private int row; //文件中的行号，表头为第1行
+        private String no; //学号
+        private String message; //失败原因
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.pojo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+* 输入联想结果
+* */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NameSuggestion {
+    private String type; //类型：emp 员工，student 学员
+    private Integer id;
+    private String name;
+}
@@ -0,0 +1,28 @@
+package org.example.pojo;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OperateLogQueryParam {
+    private Integer page = 1;// 当前页码
+    private Integer pageSize = 10;//每页记录数
+    private Integer operateEmpId;// 操作人ID
+    private String className;// 操作类名，全限定名或简单类名
+    private String methodName;// 操作方法名
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate begin;// 操作日期-开始
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate end;// 操作日期-结束
+    private Long minCostTime;// 最小耗时(ms)
+    @JsonIgnore
+    private List<String> classNames;// 由类名字典解析：简单类名对应的全限定名，非null时代替后缀模糊查询
+}
@@ -0,0 +1,18 @@
+package org.example.pojo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/*
+* 游标分页位置：上一页最后一条记录的(时间, id)
+* */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageCursor {
+    private LocalDateTime time;
+    private Integer id;
+}
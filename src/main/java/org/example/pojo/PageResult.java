@@ -1,5 +1,6 @@
 package org.example.pojo;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,4 +16,12 @@ import java.util.List;
 public class PageResult<T> {
     private Long total;
     private List<T> rows;
+    //游标分页时下一页的续传令牌，没有下一页时为null
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    public PageResult(Long total, List<T> rows) {
+        this.total = total;
+        this.rows = rows;
+    }
 }
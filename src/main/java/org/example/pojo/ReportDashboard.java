@@ -0,0 +1,21 @@
+package org.example.pojo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+* 数据统计页面的全部报表，一次返回
+* */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportDashboard {
+    private JobOption empJobData; //员工职位人数
+    private List<Map<String, Object>> empGenderData; //员工性别数量
+    private ClazzOption studentCountData; //班级人数
+    private List<Map<String, Object>> studentDegreeData; //学员学历人数
+}
@@ -0,0 +1,20 @@
+package org.example.pojo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/*
+* 员工每日汇总的一行：某天某个职位的人数和入职人数
+* */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportEmpDaily {
+    private LocalDate statDate; //统计日期
+    private Integer job; //职位，0为没有职位
+    private Integer headcount; //当天结束时的员工人数
+    private Integer hired; //当天入职的员工数
+}
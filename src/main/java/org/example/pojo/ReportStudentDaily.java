@@ -0,0 +1,22 @@
+package org.example.pojo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/*
+* 学员每日汇总的一行：某天某个(班级, 学历)的人数和流量
+* */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportStudentDaily {
+    private LocalDate statDate; //统计日期
+    private Integer clazzId; //班级ID，0为未分班
+    private Integer degree; //学历，0为未填写
+    private Integer headcount; //当天结束时的学员人数
+    private Integer enrolled; //当天新增的学员数
+    private Integer graduated; //毕业时间为当天的学员数
+}
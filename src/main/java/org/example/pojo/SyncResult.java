@@ -0,0 +1,23 @@
+package org.example.pojo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+* 按学号批量同步的结果
+* */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResult {
+    private int total; //提交的记录数
+    private int inserted; //新增的记录数
+    private int updated; //内容有变化而修改的记录数
+    private int unchanged; //内容未变化、未写入的记录数
+    private int failed; //手机号或身份证号与其他学员重复、未写入的记录数
+    private List<ImportResult.RowError> errors = new ArrayList<>(); //失败明细，row为记录在请求中的序号（从1开始），最多返回ImportResult.MAX_ERRORS条
+}
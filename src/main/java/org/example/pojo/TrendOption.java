@@ -0,0 +1,18 @@
+package org.example.pojo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/*
+* 趋势报表，横轴为各期，每个系列对应一个班级、学历或职位
+* */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendOption {
+    private List<String> dateList; //各期，按天为yyyy-MM-dd，按月为yyyy-MM
+    private List<TrendSeries> seriesList;
+}
@@ -0,0 +1,20 @@
+package org.example.pojo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/*
+* 趋势报表的一个系列，各列表与TrendOption.dateList一一对应
+* */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendSeries {
+    private String name; //班级、学历或职位名称
+    private List<Long> headcount; //期末人数，该期尚未汇总时为null
+    private List<Long> added; //本期新增：学员按创建时间，员工按入职日期
+    private List<Long> graduated; //本期毕业（按学员的毕业时间），员工为null
+}
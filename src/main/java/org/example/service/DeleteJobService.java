@@ -0,0 +1,32 @@
+package org.example.service;
+
+import org.example.pojo.DeleteJob;
+import org.example.pojo.DeleteJobRequest;
+import org.example.pojo.EmpQueryParam;
+import org.example.pojo.StudentQueryParam;
+
+/*
+* 后台批量删除任务
+* */
+public interface DeleteJobService {
+
+    /*
+    * 提交学员批量删除任务
+    * */
+    DeleteJob deleteStudents(DeleteJobRequest<StudentQueryParam> request);
+
+    /*
+    * 提交员工批量删除任务
+    * */
+    DeleteJob deleteEmps(DeleteJobRequest<EmpQueryParam> request);
+
+    /*
+    * 查询任务进度，任务不存在时返回null
+    * */
+    DeleteJob get(String table, String jobId);
+
+    /*
+    * 取消任务，已删除的记录不恢复；任务不存在时返回null
+    * */
+    DeleteJob cancel(String table, String jobId);
+}
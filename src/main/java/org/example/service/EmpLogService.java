@@ -2,6 +2,7 @@ package org.example.service;
 
 import org.example.pojo.EmpLog;
 import org.example.pojo.OperateLog;
+import org.example.pojo.OperateLogQueryParam;
 import org.example.pojo.PageResult;
 
 public interface EmpLogService {
@@ -9,6 +10,19 @@ public interface EmpLogService {
     public void insertLog(EmpLog empLog);
     /*
     * 分页查询日志
+    * @Param approximateTotal 是否使用表统计信息估算总数，只影响返回的总数，翻页偏移始终按精确条数计算
     * */
-    PageResult<OperateLog> page(Integer page, Integer pageSize);
+    PageResult<OperateLog> page(Integer page, Integer pageSize, boolean approximateTotal);
+
+    /*
+    * 游标分页查询日志
+    * @Param cursor 上一页返回的续传令牌，空表示第一页
+    * @Param approximateTotal 是否返回估算总数，否则不统计总数
+    * */
+    PageResult<OperateLog> pageByCursor(String cursor, Integer pageSize, boolean approximateTotal);
+
+    /*
+    * 条件查询日志，只查询数据库中的日志（内存索引加热表），不包括已归档的日志；归档日志通过分页查询浏览
+    * */
+    PageResult<OperateLog> search(OperateLogQueryParam param);
 }
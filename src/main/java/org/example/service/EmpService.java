@@ -4,6 +4,9 @@ import org.example.pojo.Emp;
 import org.example.pojo.EmpQueryParam;
 import org.example.pojo.LoginInfo;
 import org.example.pojo.PageResult;
+import org.example.utils.ExportWriter;
+
+import java.io.IOException;
 
 import java.util.List;
 
@@ -44,4 +47,14 @@ public interface EmpService {
      * 员工登录
      * */
     LoginInfo login(Emp emp);
+
+    /*
+     * 按查询条件流式导出员工
+     * */
+    void export(EmpQueryParam empQueryParam, ExportWriter writer) throws IOException;
+
+    /*
+     * 查询符合条件的员工ID，按ID升序
+     * */
+    List<Integer> listIds(EmpQueryParam empQueryParam) throws IOException;
 }
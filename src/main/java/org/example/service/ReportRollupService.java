@@ -0,0 +1,32 @@
+package org.example.service;
+
+import org.example.pojo.TrendOption;
+
+import java.time.LocalDate;
+
+public interface ReportRollupService {
+
+    /*
+    * 补齐到昨天为止的每日汇总；汇总表为空时从最早的学员创建日期、员工入职日期开始回溯
+    * */
+    void rollup();
+
+    /*
+    * 按学员表、员工表的当前数据重新汇总指定日期范围，返回汇总的天数
+    * */
+    int backfill(LocalDate begin, LocalDate end);
+
+    /*
+    * 学员人数趋势，只查询汇总表
+    * @param interval day或month
+    * @param dimension clazz、degree，为空时不分组
+    * */
+    TrendOption studentTrend(LocalDate begin, LocalDate end, String interval, String dimension);
+
+    /*
+    * 员工人数及入职人数趋势，只查询汇总表
+    * @param interval day或month
+    * @param dimension job，为空时不分组
+    * */
+    TrendOption empTrend(LocalDate begin, LocalDate end, String interval, String dimension);
+}
@@ -2,6 +2,7 @@ package org.example.service;
 
 import org.example.pojo.ClazzOption;
 import org.example.pojo.JobOption;
+import org.example.pojo.ReportDashboard;
 
 import java.util.List;
 import java.util.Map;
@@ -27,4 +28,10 @@ public interface ReportService {
     * 学历人数统计
     * */
     List<Map<String, Object>> studentDegreeData();
+
+    /*
+    * 数据统计页面的全部报表
+    * snapshot为true时在同一个只读事务中依次查询数据库，各报表取自同一时刻的数据
+    * */
+    ReportDashboard dashboard(boolean snapshot);
 }
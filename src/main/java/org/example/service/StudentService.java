@@ -1,8 +1,14 @@
 package org.example.service;
 
+import org.example.pojo.ImportResult;
 import org.example.pojo.PageResult;
 import org.example.pojo.Student;
 import org.example.pojo.StudentQueryParam;
+import org.example.pojo.SyncResult;
+import org.example.utils.ExportWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
 
 import java.util.List;
 
@@ -37,4 +43,24 @@ public interface StudentService {
     * 违纪处理
     * */
     void updateViolation(Integer id, Integer score);
+
+    /*
+    * 按查询条件流式导出学员
+    * */
+    void export(StudentQueryParam studentQueryParam, ExportWriter writer) throws IOException;
+
+    /*
+    * 从CSV/XLSX文件批量导入学员
+    * */
+    ImportResult importStudents(Path file, String format) throws IOException;
+
+    /*
+    * 按学号批量同步学员，内容未变化的记录不写入
+    * */
+    SyncResult sync(List<Student> students);
+
+    /*
+    * 查询符合条件的学员ID，按ID升序
+    * */
+    List<Integer> listIds(StudentQueryParam studentQueryParam) throws IOException;
 }
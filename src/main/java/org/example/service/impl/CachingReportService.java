@@ -0,0 +1,270 @@
+package org.example.service.impl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.example.event.DataChangeEvent;
+import org.example.pojo.ClazzOption;
+import org.example.pojo.JobOption;
+import org.example.pojo.ReportDashboard;
+import org.example.service.ReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 统计报表缓存，包装ReportServiceImpl
+ * 每个报表缓存一份结果，各自的TTL到期或相关表有写入(DataChangeEvent)后失效；
+ * 同一报表并发未命中时只有一个请求查询，其余请求等待并共用其结果；
+ * 统计页面的全部报表由有界线程池并行计算，耗时取决于最慢的一个
+ */
+@Primary
+@Service
+public class CachingReportService implements ReportService, MeterBinder {
+
+    //是否启用报表缓存
+    @Value("${tlias.report-cache.enabled:true}")
+    private boolean enabled;
+    //各报表的缓存有效期
+    @Value("${tlias.report-cache.ttl.emp-job-data:30s}")
+    private Duration empJobTtl;
+    @Value("${tlias.report-cache.ttl.emp-gender-data:30s}")
+    private Duration empGenderTtl;
+    @Value("${tlias.report-cache.ttl.student-count-data:30s}")
+    private Duration studentCountTtl;
+    @Value("${tlias.report-cache.ttl.student-degree-data:30s}")
+    private Duration studentDegreeTtl;
+
+    //并行计算统计页面报表的线程数，以及等待执行的任务数上限，队列满时由请求线程自己计算
+    @Value("${tlias.report-dashboard.threads:4}")
+    private int dashboardThreads;
+    @Value("${tlias.report-dashboard.queue-capacity:100}")
+    private int dashboardQueueCapacity;
+
+    @Autowired
+    private ReportServiceImpl delegate;
+
+    private Report<JobOption> empJob;
+    private Report<List<Map<String, Object>>> empGender;
+    private Report<ClazzOption> studentCount;
+    private Report<List<Map<String, Object>>> studentDegree;
+    private ThreadPoolExecutor dashboardExecutor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        dashboardExecutor = new ThreadPoolExecutor(dashboardThreads, dashboardThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(dashboardQueueCapacity), r -> {
+                    Thread thread = new Thread(r, "report-dashboard-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        dashboardExecutor.allowCoreThreadTimeOut(true);
+
+        //报表依赖的表，这些表有写入时失效
+        empJob = new Report<>("empJobData", empJobTtl, Set.of(DataChangeEvent.EMP), delegate::getEmpJobData);
+        empGender = new Report<>("empGenderData", empGenderTtl, Set.of(DataChangeEvent.EMP), delegate::getEmpGenderData);
+        studentCount = new Report<>("studentCountData", studentCountTtl,
+                Set.of(DataChangeEvent.STUDENT, DataChangeEvent.CLAZZ), delegate::studentCountData);
+        studentDegree = new Report<>("studentDegreeData", studentDegreeTtl, Set.of(DataChangeEvent.STUDENT),
+                delegate::studentDegreeData);
+    }
+
+    @Override
+    public JobOption getEmpJobData() {
+        return get(empJob);
+    }
+
+    @Override
+    public List<Map<String, Object>> getEmpGenderData() {
+        return get(empGender);
+    }
+
+    @Override
+    public ClazzOption studentCountData() {
+        return get(studentCount);
+    }
+
+    @Override
+    public List<Map<String, Object>> studentDegreeData() {
+        return get(studentDegree);
+    }
+
+    /*
+     * 非快照模式下，三个报表提交到线程池，剩下一个在请求线程中计算，再等待全部完成；
+     * 快照模式需要在同一个事务（同一个连接）中查询，不能并行，也不读缓存
+     * */
+    @Override
+    public ReportDashboard dashboard(boolean snapshot) {
+        if (snapshot) {
+            return delegate.dashboard(true);
+        }
+        CompletableFuture<JobOption> empJobData = CompletableFuture.supplyAsync(this::getEmpJobData, dashboardExecutor);
+        CompletableFuture<List<Map<String, Object>>> empGenderData =
+                CompletableFuture.supplyAsync(this::getEmpGenderData, dashboardExecutor);
+        CompletableFuture<List<Map<String, Object>>> studentDegreeData =
+                CompletableFuture.supplyAsync(this::studentDegreeData, dashboardExecutor);
+        ClazzOption studentCountData = studentCountData();
+        return new ReportDashboard(await(empJobData), await(empGenderData), studentCountData, await(studentDegreeData));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dashboardExecutor.shutdown();
+    }
+
+    /*
+     * 事务提交后使相关报表失效；排在其他监听之后，内存聚合先完成更新
+     * */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDataChange(DataChangeEvent event) {
+        for (Report<?> report : List.of(empJob, empGender, studentCount, studentDegree)) {
+            if (report.tables.contains(event.getTable())) {
+                report.generation.incrementAndGet();
+            }
+        }
+    }
+
+    private <T> T get(Report<T> report) {
+        if (!enabled) {
+            return report.loader.get();
+        }
+        while (true) {
+            long generation = report.generation.get();
+            Entry<T> entry = report.entry;
+            if (entry != null && entry.generation == generation && System.nanoTime() - entry.loadedAt < report.ttlNanos) {
+                report.hits.increment();
+                return entry.value;
+            }
+            //已有同一版本的查询在进行，等待其结果
+            Flight<T> flight = report.flight.get();
+            if (flight != null && flight.generation == generation) {
+                report.coalesced.increment();
+                return await(flight.future);
+            }
+            Flight<T> mine = new Flight<>(generation);
+            if (!report.flight.compareAndSet(flight, mine)) {
+                continue;
+            }
+            report.misses.increment();
+            try {
+                Timer timer = report.loadTimer;
+                T value = timer != null ? timer.record(report.loader) : report.loader.get();
+                //查询期间有写入时不缓存，下次读取重新查询
+                if (report.generation.get() == generation) {
+                    report.entry = new Entry<>(value, generation, System.nanoTime());
+                }
+                mine.future.complete(value);
+                return value;
+            } catch (Throwable e) {
+                //Error也要结束等待中的请求，否则合并等待的线程会一直阻塞
+                mine.future.completeExceptionally(e);
+                throw e;
+            } finally {
+                report.flight.compareAndSet(mine, null);
+            }
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /*
+     * 注册到actuator的metrics中：/actuator/metrics/report.cache.requests（按report、result区分命中、未命中、合并等待）
+     * 和/actuator/metrics/report.cache.load（未命中时的查询耗时）
+     * */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Report<?> report : List.of(empJob, empGender, studentCount, studentDegree)) {
+            FunctionCounter.builder("report.cache.requests", report.hits, LongAdder::sum)
+                    .tags("report", report.name, "result", "hit").register(registry);
+            FunctionCounter.builder("report.cache.requests", report.misses, LongAdder::sum)
+                    .tags("report", report.name, "result", "miss").register(registry);
+            FunctionCounter.builder("report.cache.requests", report.coalesced, LongAdder::sum)
+                    .tags("report", report.name, "result", "coalesced").register(registry);
+            report.loadTimer = Timer.builder("report.cache.load").tag("report", report.name).register(registry);
+        }
+    }
+
+    /*
+     * 一个报表的缓存状态
+     * */
+    private static class Report<T> {
+        private final String name;
+        private final long ttlNanos;
+        private final Set<String> tables;
+        private final Supplier<T> loader;
+        //相关表的写入版本
+        private final AtomicLong generation = new AtomicLong();
+        private volatile Entry<T> entry;
+        //正在进行的查询
+        private final AtomicReference<Flight<T>> flight = new AtomicReference<>();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        //注册到MeterRegistry后才有值
+        private volatile Timer loadTimer;
+
+        private Report(String name, Duration ttl, Set<String> tables, Supplier<T> loader) {
+            this.name = name;
+            this.ttlNanos = ttl.toNanos();
+            this.tables = tables;
+            this.loader = loader;
+        }
+    }
+
+    private static class Entry<T> {
+        private final T value;
+        private final long generation;
+        private final long loadedAt;
+
+        private Entry(T value, long generation, long loadedAt) {
+            this.value = value;
+            this.generation = generation;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private static class Flight<T> {
+        private final long generation;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private Flight(long generation) {
+            this.generation = generation;
+        }
+    }
+}
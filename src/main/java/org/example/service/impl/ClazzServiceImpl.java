@@ -2,6 +2,7 @@ package org.example.service.impl;
 
 import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
+import org.example.event.DataChangeEvent;
 import org.example.exception.BusinessException;
 import org.example.mapper.ClazzMapper;
 import org.example.mapper.StudentMapper;
@@ -9,7 +10,13 @@ import org.example.pojo.Clazz;
 import org.example.pojo.ClazzQueryParam;
 import org.example.pojo.PageResult;
 import org.example.service.ClazzService;
+import org.example.utils.CountCache;
+import org.example.utils.NameIndexRegistry;
+import org.example.utils.PageUtils;
+import org.example.utils.ReferenceDataCache;
+import org.example.utils.ReportAggregates;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,18 +30,39 @@ public class ClazzServiceImpl implements ClazzService {
     private ClazzMapper clazzMapper;
     @Autowired
     private StudentMapper studentMapper;
+    @Autowired
+    private CountCache countCache;
+    @Autowired
+    private NameIndexRegistry nameIndexRegistry;
+    @Autowired
+    private ApplicationEventPublisher publisher;
+    @Autowired
+    private ReportAggregates reportAggregates;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
 
     /*
     * 分页查询所有班级信息
     * */
     @Override
     public PageResult<Clazz> getClazzPage(ClazzQueryParam clazzQueryParam) {
-        PageHelper.startPage(clazzQueryParam.getPage(), clazzQueryParam.getPageSize());
+        //名称条件先查名称索引
+        clazzQueryParam.setNameIds(nameIndexRegistry.resolve(DataChangeEvent.CLAZZ, clazzQueryParam.getName()));
+        clazzQueryParam.setPage(PageUtils.page(clazzQueryParam.getPage()));
+        clazzQueryParam.setPageSize(PageUtils.pageSize(clazzQueryParam.getPageSize()));
+        //总数走计数缓存
+        PageHelper.startPage(clazzQueryParam.getPage(), clazzQueryParam.getPageSize(), false);
 
         List<Clazz> ClassList = clazzMapper.list(clazzQueryParam);
         Page<Clazz> p = (Page<Clazz>)ClassList;
 
-        return new PageResult<Clazz>(p.getTotal(),p.getResult());
+        List<Object> key = CountCache.key(clazzQueryParam.getName(), clazzQueryParam.getBegin(), clazzQueryParam.getEnd());
+        long total = countCache.count("clazz", key, clazzQueryParam.isApproxTotal(),
+                () -> PageHelper.count(() -> clazzMapper.list(clazzQueryParam)));
+        if (clazzQueryParam.isWithStudentCount()) {
+            p.getResult().forEach(clazz -> clazz.setStudentCount(headcount(clazz.getId())));
+        }
+        return new PageResult<Clazz>(total,p.getResult());
     }
 
     /*
@@ -43,6 +71,7 @@ public class ClazzServiceImpl implements ClazzService {
     @Override
     public void saveClazz(Clazz clazz) {
         clazzMapper.insertClazz(clazz);
+        publisher.publishEvent(new DataChangeEvent(DataChangeEvent.CLAZZ, List.of(clazz.getId())));
     }
 
     /*
@@ -60,6 +89,7 @@ public class ClazzServiceImpl implements ClazzService {
     @Override
     public void updateClazz(Clazz clazz) {
         clazzMapper.updateClazz(clazz);
+        publisher.publishEvent(new DataChangeEvent(DataChangeEvent.CLAZZ, List.of(clazz.getId())));
     }
 
     /*
@@ -67,19 +97,29 @@ public class ClazzServiceImpl implements ClazzService {
     * */
     @Override
     public void deleteClazz(Integer id) {
-        if (studentMapper.selectById(id) > 0){
+        if (headcount(id) > 0){
             throw new BusinessException("对不起，该班级下有学生，不能直接删除");
         }
 
         clazzMapper.deleteClazz(id);
+        publisher.publishEvent(new DataChangeEvent(DataChangeEvent.CLAZZ, List.of(id)));
+
+    }
 
+    /*
+    * 班级人数，聚合就绪时读取内存聚合（学员变更提交后即同步更新，并定时与数据库核对），
+    * 未就绪（启动加载中、核对不一致后重新加载中）时查询数据库
+    * */
+    private int headcount(Integer clazzId) {
+        int headcount = reportAggregates.clazzHeadcount(clazzId);
+        return headcount >= 0 ? headcount : studentMapper.selectById(clazzId);
     }
 
     /*
-    * 查询所有班级
+    * 查询所有班级，读取班级缓存，班级有写入时重新查询
     * */
     @Override
     public List<Clazz> clazzList() {
-        return clazzMapper.clazzList();
+        return referenceDataCache.clazzs().getValue();
     }
 }
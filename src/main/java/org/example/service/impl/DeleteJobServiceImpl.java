@@ -0,0 +1,211 @@
+package org.example.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.event.DataChangeEvent;
+import org.example.exception.BusinessException;
+import org.example.pojo.DeleteJob;
+import org.example.pojo.DeleteJobRequest;
+import org.example.pojo.EmpQueryParam;
+import org.example.pojo.StudentQueryParam;
+import org.example.service.DeleteJobService;
+import org.example.service.EmpService;
+import org.example.service.StudentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 后台批量删除
+ * 任务提交后立即返回任务ID，由单个后台线程依次执行：先确定待删除的ID（按条件删除时流式读取ID），
+ * 再按块调用原有的删除方法，每块一个短事务；每块之后按本块耗时暂停，限制对数据库的占用，
+ * 同一时刻只有一个任务在删除，不影响页面上的正常操作
+ */
+@Slf4j
+@Service
+public class DeleteJobServiceImpl implements DeleteJobService {
+
+    //每块删除的记录数（一个事务）
+    @Value("${tlias.bulk-delete.chunk-size:500}")
+    private int chunkSize;
+    //每块之后暂停的时长与本块耗时之比，1表示数据库最多一半时间用于批量删除
+    @Value("${tlias.bulk-delete.pause-ratio:1.0}")
+    private double pauseRatio;
+    //每块之后最少暂停的时长
+    @Value("${tlias.bulk-delete.min-pause:50ms}")
+    private Duration minPause;
+    //保留的已结束任务数，更早的任务不再能查询
+    @Value("${tlias.bulk-delete.history:100}")
+    private int history;
+
+    @Autowired
+    private EmpService empService;
+    @Autowired
+    private StudentService studentService;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "bulk-delete");
+        thread.setDaemon(true);
+        return thread;
+    });
+    //任务ID -> 任务，按提交顺序
+    private final Map<String, DeleteJob> jobs = new LinkedHashMap<>();
+
+    @Override
+    public DeleteJob deleteStudents(DeleteJobRequest<StudentQueryParam> request) {
+        Source source;
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            List<Integer> ids = distinct(request.getIds());
+            source = () -> ids;
+        } else {
+            StudentQueryParam filter = request.getFilter();
+            if (filter == null || ((filter.getName() == null || filter.getName().isEmpty())
+                    && filter.getDegree() == null && filter.getClazzId() == null)) {
+                throw new BusinessException("请指定要删除的学员ID或查询条件");
+            }
+            source = () -> studentService.listIds(filter);
+        }
+        return submit(DataChangeEvent.STUDENT, source, chunk ->
+                studentService.deleteBatch(chunk.stream().map(Integer::longValue).collect(Collectors.toList())));
+    }
+
+    @Override
+    public DeleteJob deleteEmps(DeleteJobRequest<EmpQueryParam> request) {
+        Source source;
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            List<Integer> ids = distinct(request.getIds());
+            source = () -> ids;
+        } else {
+            EmpQueryParam filter = request.getFilter();
+            if (filter == null || ((filter.getName() == null || filter.getName().isEmpty())
+                    && filter.getGender() == null && (filter.getBegin() == null || filter.getEnd() == null))) {
+                throw new BusinessException("请指定要删除的员工ID或查询条件");
+            }
+            source = () -> empService.listIds(filter);
+        }
+        //员工及其工作经历在同一个事务中删除
+        return submit(DataChangeEvent.EMP, source, empService::delete);
+    }
+
+    @Override
+    public synchronized DeleteJob get(String table, String jobId) {
+        DeleteJob job = jobs.get(jobId);
+        return job != null && job.getTable().equals(table) ? job : null;
+    }
+
+    @Override
+    public synchronized DeleteJob cancel(String table, String jobId) {
+        DeleteJob job = get(table, jobId);
+        if (job != null) {
+            job.setCancelRequested(true);
+        }
+        return job;
+    }
+
+    private synchronized DeleteJob submit(String table, Source source, Consumer<List<Integer>> deleter) {
+        DeleteJob job = new DeleteJob();
+        job.setId(UUID.randomUUID().toString().replace("-", ""));
+        job.setTable(table);
+        job.setCreateTime(LocalDateTime.now());
+        jobs.put(job.getId(), job);
+        evict();
+        executor.execute(() -> run(job, source, deleter));
+        log.info("提交批量删除任务：{}，{}", table, job.getId());
+        return job;
+    }
+
+    private void run(DeleteJob job, Source source, Consumer<List<Integer>> deleter) {
+        job.setStartTime(LocalDateTime.now());
+        try {
+            if (job.isCancelRequested()) {
+                job.setStatus(DeleteJob.Status.CANCELLED);
+                return;
+            }
+            job.setStatus(DeleteJob.Status.RUNNING);
+            List<Integer> ids = source.ids();
+            job.setTotal(ids.size());
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                if (job.isCancelRequested()) {
+                    job.setStatus(DeleteJob.Status.CANCELLED);
+                    log.info("批量删除任务已取消：{}，已处理{}/{}", job.getId(), job.getProcessed(), job.getTotal());
+                    return;
+                }
+                List<Integer> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                long start = System.nanoTime();
+                deleter.accept(new ArrayList<>(chunk));
+                job.setProcessed(job.getProcessed() + chunk.size());
+                if (from + chunkSize < ids.size()) {
+                    pause(System.nanoTime() - start);
+                }
+            }
+            job.setStatus(DeleteJob.Status.DONE);
+            log.info("批量删除任务完成：{}，共{}条", job.getId(), job.getTotal());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.setStatus(DeleteJob.Status.CANCELLED);
+        } catch (Exception e) {
+            log.error("批量删除任务失败：{}，已处理{}/{}", job.getId(), job.getProcessed(), job.getTotal(), e);
+            job.setMessage("删除失败，请稍后重试");
+            job.setStatus(DeleteJob.Status.FAILED);
+        } finally {
+            job.setFinishTime(LocalDateTime.now());
+        }
+    }
+
+    /*
+    * 按本块耗时暂停，让出数据库给其他请求
+    * */
+    private void pause(long elapsedNanos) throws InterruptedException {
+        long millis = Math.max(minPause.toMillis(), (long) (elapsedNanos / 1_000_000 * pauseRatio));
+        Thread.sleep(millis);
+    }
+
+    /*
+    * 已结束的任务超过保留数时，移除最早的
+    * */
+    private void evict() {
+        int finished = (int) jobs.values().stream().filter(job -> job.getFinishTime() != null).count();
+        Iterator<DeleteJob> it = jobs.values().iterator();
+        while (finished > history && it.hasNext()) {
+            if (it.next().getFinishTime() != null) {
+                it.remove();
+                finished--;
+            }
+        }
+    }
+
+    private static List<Integer> distinct(List<Integer> ids) {
+        return ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+    }
+
+    /*
+    * 应用关闭时停止后台线程，正在删除的块完成后不再继续
+    * */
+    @PreDestroy
+    public synchronized void shutdown() {
+        jobs.values().forEach(job -> job.setCancelRequested(true));
+        executor.shutdownNow();
+    }
+
+    /*
+    * 待删除的ID，在后台线程中获取
+    * */
+    @FunctionalInterface
+    private interface Source {
+        List<Integer> ids() throws Exception;
+    }
+}
@@ -1,12 +1,16 @@
 package org.example.service.impl;
 
+import org.example.event.DataChangeEvent;
 import org.example.mapper.DeptMapper;
 import org.example.pojo.Dept;
 import org.example.service.DeptService;
+import org.example.utils.ReferenceDataCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 
 @Service
@@ -14,15 +18,23 @@ public class DeptServiceImpl implements DeptService {
 
     @Autowired
     private DeptMapper deptMapper;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    @Autowired
+    private ApplicationEventPublisher publisher;
 
+    /*
+    * 读取部门缓存，部门有写入时重新查询
+    * */
     @Override
     public List<Dept> findAll() {
-        return deptMapper.findAll();
+        return referenceDataCache.depts().getValue();
     }
 
     @Override
     public void deleteById(Integer id) {
         deptMapper.deleteById(id);
+        publisher.publishEvent(new DataChangeEvent(DataChangeEvent.DEPT, Collections.singletonList(id)));
     }
 
     @Override
@@ -30,6 +42,7 @@ public class DeptServiceImpl implements DeptService {
         dept.setCreateTime(LocalDateTime.now());
         dept.setUpdateTime(LocalDateTime.now());
         deptMapper.insert(dept);
+        publisher.publishEvent(new DataChangeEvent(DataChangeEvent.DEPT, Collections.singletonList(dept.getId())));
     }
 
     @Override
@@ -42,5 +55,6 @@ public class DeptServiceImpl implements DeptService {
     public void update(Dept dept) {
         dept.setUpdateTime(LocalDateTime.now());
         deptMapper.update(dept);
+        publisher.publishEvent(new DataChangeEvent(DataChangeEvent.DEPT, Collections.singletonList(dept.getId())));
     }
 }
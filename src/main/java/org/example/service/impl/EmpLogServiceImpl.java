@@ -2,41 +2,192 @@ package org.example.service.impl;
 
 import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
-import org.example.mapper.EmpLogMapper;
 import org.example.mapper.OperateLogMapper;
+import org.example.mapper.TableStatMapper;
 import org.example.pojo.EmpLog;
 import org.example.pojo.OperateLog;
+import org.example.pojo.OperateLogQueryParam;
+import org.example.pojo.PageCursor;
 import org.example.pojo.PageResult;
 import org.example.service.EmpLogService;
+import org.example.utils.CountCache;
+import org.example.utils.CursorUtils;
+import org.example.utils.EmpLogWriter;
+import org.example.utils.OperateLogArchive;
+import org.example.utils.OperateLogIndex;
+import org.example.utils.PageUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 @Service
 public class EmpLogServiceImpl implements EmpLogService {
 
+    //当前事务中待写入的员工操作日志
+    private static final Object EMP_LOG_BUFFER = new Object();
+
     @Autowired
-    private EmpLogMapper empLogMapper;
+    private EmpLogWriter empLogWriter;
     @Autowired
     private OperateLogMapper operateLogMapper;
+    @Autowired
+    private TableStatMapper tableStatMapper;
+    @Autowired
+    private OperateLogArchive operateLogArchive;
+    @Autowired
+    private OperateLogIndex operateLogIndex;
+    @Autowired
+    private CountCache countCache;
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    /*
+    * 记录员工操作日志
+    * 处于事务中时先缓存在当前事务上，事务提交或回滚后统一交给异步写入器批量写库（回滚的操作同样记录），
+    * 不再挂起当前事务另开连接；不在事务中时直接提交给写入器
+    * */
     @Override
     public void insertLog(EmpLog empLog) {
-        empLogMapper.insert(empLog);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            empLogWriter.submit(empLog);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<EmpLog> buffer = (List<EmpLog>) TransactionSynchronizationManager.getResource(EMP_LOG_BUFFER);
+        if (buffer == null) {
+            List<EmpLog> logs = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(EMP_LOG_BUFFER, logs);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EMP_LOG_BUFFER);
+                    logs.forEach(empLogWriter::submit);
+                }
+            });
+            buffer = logs;
+        }
+        buffer.add(empLog);
     }
 
     /*
-    * 分页查询日志
+    * 分页查询日志，热表数据之后接着是归档数据
+    * 归档后删除前的日志同时存在于热表和归档中，这部分在热表中排在最后、在归档中排在最前，
+    * 翻到归档时跳过归档中的这部分，总数也减去这部分；偏移量按热表的精确条数计算，
+    * approximateTotal只影响返回的总数，此时总数为估算值
     * */
     @Override
-    public PageResult<OperateLog> page(Integer page, Integer pageSize) {
-        PageHelper.startPage(page, pageSize);
+    public PageResult<OperateLog> page(Integer page, Integer pageSize, boolean approximateTotal) {
+        page = PageUtils.page(page);
+        pageSize = PageUtils.pageSize(pageSize);
+        PageHelper.startPage(page, pageSize, false);
         List<OperateLog> operateLogList = operateLogMapper.list();
         Page<OperateLog> p = (Page<OperateLog>)operateLogList;
-        return new PageResult<>(p.getTotal(), p.getResult());
+        long hotTotal = countCache.count("operate_log", CountCache.key(), approximateTotal,
+                () -> PageHelper.count(() -> operateLogMapper.list()));
+        long archived = operateLogArchive.count();
+        if (archived == 0) {
+            return new PageResult<>(hotTotal, p.getResult());
+        }
+        long overlap = archivedInHot();
+        if (p.getResult().size() >= pageSize) {
+            return new PageResult<>(Math.max(hotTotal, overlap) + archived - overlap, p.getResult());
+        }
+
+        //热表数据不足一页时从归档中补足，归档数据都早于保留时长，排在热表数据之后
+        long exactHotTotal = approximateTotal
+                ? countCache.count("operate_log", CountCache.key(), false, () -> PageHelper.count(() -> operateLogMapper.list()))
+                : hotTotal;
+        long skip = Math.max(0, (long) (page - 1) * pageSize - exactHotTotal) + overlap;
+        List<OperateLog> rows = merge(p.getResult(), operateLogArchive.read(skip, pageSize), pageSize);
+        return new PageResult<>(exactHotTotal + archived - overlap, rows);
+    }
+
+    /*
+    * 已归档但尚未从热表删除的日志条数，即热表中不晚于归档最新一条的日志
+    * */
+    private long archivedInHot() {
+        OperateLog newest = operateLogArchive.newest();
+        return newest == null ? 0 : operateLogMapper.countNotAfter(newest.getOperateTime(), newest.getId());
+    }
+
+    /*
+    * 游标分页查询日志，多查一条判断是否有下一页，不执行COUNT
+    * */
+    @Override
+    public PageResult<OperateLog> pageByCursor(String cursor, Integer pageSize, boolean approximateTotal) {
+        pageSize = PageUtils.pageSize(pageSize);
+        PageCursor pageCursor = CursorUtils.decode(cursor);
+        LocalDateTime cursorTime = pageCursor == null ? null : pageCursor.getTime();
+        Integer cursorId = pageCursor == null ? null : pageCursor.getId();
+        List<OperateLog> rows = operateLogMapper.listByCursor(cursorTime, cursorId, pageSize + 1);
+
+        //热表不足一页，或归档中有比本页最后一条更新的记录时，与归档数据归并
+        OperateLog newestArchived = operateLogArchive.newest();
+        if (newestArchived != null && (rows.size() <= pageSize
+                || OperateLogArchive.NEWEST_FIRST.compare(newestArchived, rows.get(rows.size() - 1)) < 0)) {
+            rows = merge(rows, operateLogArchive.readAfter(cursorTime, cursorId, pageSize + 1), pageSize + 1);
+        }
+
+        Long total = null;
+        if (approximateTotal) {
+            Long hot = tableStatMapper.approximateRows("operate_log");
+            long overlap = archivedInHot();
+            total = Math.max(hot == null ? 0 : hot, overlap) + operateLogArchive.count() - overlap;
+        }
+        return CursorUtils.toPageResult(rows, pageSize, total, OperateLog::getOperateTime, OperateLog::getId);
+    }
+
+    /*
+    * 条件查询日志：最近的日志查内存索引，索引未覆盖的更早日志查数据库
+    * */
+    @Override
+    public PageResult<OperateLog> search(OperateLogQueryParam param) {
+        param.setPage(PageUtils.page(param.getPage()));
+        param.setPageSize(PageUtils.pageSize(param.getPageSize()));
+        int pageSize = param.getPageSize();
+        long offset = (long) (param.getPage() - 1) * pageSize;
+        OperateLogIndex.Hits hits = operateLogIndex.search(param, offset, pageSize);
+
+        List<OperateLog> rows = new ArrayList<>(pageSize);
+        if (!hits.getIds().isEmpty()) {
+            rows.addAll(operateLogMapper.selectByIds(hits.getIds()));
+            rows.sort(Comparator.comparing(OperateLog::getId).reversed());
+        }
+        long total = hits.getTotal();
+        if (hits.isOlderMayMatch()) {
+            if (param.getClassName() != null && !param.getClassName().isEmpty() && param.getClassName().indexOf('.') < 0) {
+                param.setClassNames(operateLogIndex.resolveClassNames(param.getClassName()));
+            }
+            long olderTotal = operateLogMapper.countSearch(param, hits.getCoveredFromId());
+            total += olderTotal;
+            if (rows.size() < pageSize && olderTotal > 0) {
+                long olderOffset = Math.max(0, offset - hits.getTotal());
+                rows.addAll(operateLogMapper.search(param, hits.getCoveredFromId(), olderOffset, pageSize - rows.size()));
+            }
+        }
+        return new PageResult<>(total, rows);
+    }
+
+    /*
+    * 归并热表和归档数据，归档过程中同一条日志可能短暂同时存在于两边，按ID去重
+    * */
+    private List<OperateLog> merge(List<OperateLog> hot, List<OperateLog> archived, int limit) {
+        List<OperateLog> all = new ArrayList<>(hot);
+        all.addAll(archived);
+        all.sort(OperateLogArchive.NEWEST_FIRST);
+        List<OperateLog> rows = new ArrayList<>(limit);
+        for (OperateLog log : all) {
+            if (rows.size() >= limit) {
+                break;
+            }
+            if (rows.isEmpty() || !rows.get(rows.size() - 1).getId().equals(log.getId())) {
+                rows.add(log);
+            }
+        }
+        return rows;
     }
 }
@@ -3,18 +3,32 @@ package org.example.service.impl;
 import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.example.event.DataChangeEvent;
 import org.example.mapper.EmpExprMapper;
 import org.example.mapper.EmpMapper;
 import org.example.pojo.*;
 import org.example.service.EmpLogService;
 import org.example.service.EmpService;
+import org.example.utils.CountCache;
+import org.example.utils.CursorUtils;
+import org.example.utils.EmpPermissionCache;
+import org.example.utils.ExportWriter;
 import org.example.utils.JwtUtils;
+import org.example.utils.NameIndexRegistry;
+import org.example.utils.PageUtils;
+import org.example.utils.PermissionRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -23,21 +37,75 @@ import java.util.Map;
 @Slf4j
 @Service
 public class EmpServiceImpl implements EmpService {
+
+    //导出时的性别、职位名称，下标为编码
+    private static final String[] GENDERS = {null, "男", "女"};
+    private static final String[] JOBS = {null, "班主任", "讲师", "学工主管", "教研主管", "咨询师"};
     @Autowired
     private EmpMapper empMapper;
     @Autowired
     private EmpExprMapper empExprMapper;
     @Autowired
     private EmpLogService empLogService;
+    @Autowired
+    private EmpPermissionCache empPermissionCache;
+    @Autowired
+    private PermissionRegistry permissionRegistry;
+    @Autowired
+    private CountCache countCache;
+    @Autowired
+    private NameIndexRegistry nameIndexRegistry;
+    @Autowired
+    private ApplicationEventPublisher publisher;
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
 
     @Override
     public PageResult<Emp> page(EmpQueryParam empQueryParam) {
-        //起始参数
-        PageHelper.startPage(empQueryParam.getPage(), empQueryParam.getPageSize());
+        //名称条件先查名称索引
+        empQueryParam.setNameIds(nameIndexRegistry.resolve(DataChangeEvent.EMP, empQueryParam.getName()));
+        empQueryParam.setPage(PageUtils.page(empQueryParam.getPage()));
+        empQueryParam.setPageSize(PageUtils.pageSize(empQueryParam.getPageSize()));
+        //传入续传令牌时使用游标分页
+        if (empQueryParam.getCursor() != null) {
+            return pageByCursor(empQueryParam);
+        }
+        //起始参数，总数走计数缓存
+        PageHelper.startPage(empQueryParam.getPage(), empQueryParam.getPageSize(), false);
         List<Emp> empList = empMapper.list(empQueryParam);
         Page<Emp> p = (Page<Emp>) empList;
 
-        return new PageResult<Emp>(p.getTotal(), p.getResult());
+        return new PageResult<Emp>(count(empQueryParam), p.getResult());
+    }
+
+    /*
+    * 按查询条件统计员工总数，入职日期只有起止都传时才生效
+    * */
+    private long count(EmpQueryParam empQueryParam) {
+        boolean dateRange = empQueryParam.getBegin() != null && empQueryParam.getEnd() != null;
+        List<Object> key = CountCache.key(empQueryParam.getName(), empQueryParam.getGender(),
+                dateRange ? empQueryParam.getBegin() : null, dateRange ? empQueryParam.getEnd() : null);
+        return countCache.count("emp", key, empQueryParam.isApproxTotal(),
+                () -> PageHelper.count(() -> empMapper.list(empQueryParam)));
+    }
+
+    /*
+    * 游标分页：按(update_time, id)定位，多查一条判断是否有下一页，只在withTotal时统计总数
+    * */
+    private PageResult<Emp> pageByCursor(EmpQueryParam empQueryParam) {
+        PageCursor cursor = CursorUtils.decode(empQueryParam.getCursor());
+        empQueryParam.setCursorTime(null);
+        empQueryParam.setCursorId(null);
+        Long total = empQueryParam.isWithTotal() ? count(empQueryParam) : null;
+
+        if (cursor != null) {
+            empQueryParam.setCursorTime(cursor.getTime());
+            empQueryParam.setCursorId(cursor.getId());
+        }
+        int pageSize = empQueryParam.getPageSize();
+        PageHelper.startPage(1, pageSize + 1, false);
+        List<Emp> empList = empMapper.list(empQueryParam);
+        return CursorUtils.toPageResult(empList, pageSize, total, Emp::getUpdateTime, Emp::getId);
     }
 
     @Transactional(rollbackFor = {Exception.class})
@@ -57,6 +125,7 @@ public class EmpServiceImpl implements EmpService {
                 });
                 empExprMapper.insertBatch(exprList);
             }
+            publisher.publishEvent(new DataChangeEvent(DataChangeEvent.EMP, List.of(emp.getId())));
         } finally {
             //记录日志操作日志
             EmpLog empLog = new EmpLog(null, LocalDateTime.now(), "新增员工"+emp);
@@ -72,6 +141,9 @@ public class EmpServiceImpl implements EmpService {
         empMapper.deleteByIds(ids);
         //2.批量删除员工的基本信息
         empExprMapper.deleteByEmpIds(ids);
+        //3.失效员工权限缓存
+        empPermissionCache.invalidate(ids);
+        publisher.publishEvent(new DataChangeEvent(DataChangeEvent.EMP, ids));
     }
 
     /*
@@ -102,6 +174,10 @@ public class EmpServiceImpl implements EmpService {
             exprList.forEach(empExpr -> empExpr.setEmpId(emp.getId()));
             empExprMapper.insertBatch(exprList);
         }
+
+        //3.职位可能变更，失效员工权限缓存
+        empPermissionCache.invalidate(emp.getId());
+        publisher.publishEvent(new DataChangeEvent(DataChangeEvent.EMP, List.of(emp.getId())));
     }
 
 
@@ -128,6 +204,10 @@ public class EmpServiceImpl implements EmpService {
             Map<String, Object> claims = new HashMap<>();
             claims.put("id", e.getId());
             claims.put("username", e.getUsername());
+            //开启令牌权限模式时，携带职位及权限掩码，后续鉴权无需查询
+            if (permissionRegistry.isTokenClaims()) {
+                claims.putAll(permissionRegistry.claimsOf(e.getJob()));
+            }
             String jwt = JwtUtils.generateToken(claims);
 
             return new LoginInfo(e.getId(), e.getUsername(), e.getName(), jwt);
@@ -136,4 +216,43 @@ public class EmpServiceImpl implements EmpService {
         return null;
 
     }
-}
\ No newline at end of file
+
+    /*
+    * 按查询条件流式导出员工
+    * 使用独立会话逐行读取，边读边写，内存占用与导出行数无关
+    * */
+    @Override
+    public void export(EmpQueryParam empQueryParam, ExportWriter writer) throws IOException {
+        empQueryParam.setNameIds(nameIndexRegistry.resolve(DataChangeEvent.EMP, empQueryParam.getName()));
+        empQueryParam.setCursor(null);
+        writer.row("ID", "用户名", "姓名", "性别", "手机号", "职位", "薪资", "入职日期", "所属部门", "最后修改时间");
+        try (SqlSession session = sqlSessionFactory.openSession();
+             Cursor<Emp> emps = session.getMapper(EmpMapper.class).cursorList(empQueryParam)) {
+            for (Emp emp : emps) {
+                writer.row(emp.getId(), emp.getUsername(), emp.getName(), label(GENDERS, emp.getGender()),
+                        emp.getPhone(), label(JOBS, emp.getJob()), emp.getSalary(), emp.getEntryDate(),
+                        emp.getDeptName(), emp.getUpdateTime());
+            }
+        }
+        log.info("员工导出完成，共{}行", writer.getWritten() - 1);
+    }
+
+    /*
+    * 查询符合条件的员工ID，流式读取，只保存ID
+    * */
+    @Override
+    public List<Integer> listIds(EmpQueryParam empQueryParam) throws IOException {
+        empQueryParam.setNameIds(nameIndexRegistry.resolve(DataChangeEvent.EMP, empQueryParam.getName()));
+        empQueryParam.setCursor(null);
+        List<Integer> ids = new ArrayList<>();
+        try (SqlSession session = sqlSessionFactory.openSession();
+             Cursor<Integer> cursor = session.getMapper(EmpMapper.class).cursorIds(empQueryParam)) {
+            cursor.forEach(ids::add);
+        }
+        return ids;
+    }
+
+    private static String label(String[] labels, Integer code) {
+        return code == null || code < 0 || code >= labels.length ? null : labels[code];
+    }
+}
@@ -0,0 +1,386 @@
+package org.example.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.exception.BusinessException;
+import org.example.mapper.ClazzMapper;
+import org.example.mapper.ReportRollupMapper;
+import org.example.pojo.Clazz;
+import org.example.pojo.ReportEmpDaily;
+import org.example.pojo.ReportStudentDaily;
+import org.example.pojo.TrendOption;
+import org.example.pojo.TrendSeries;
+import org.example.service.ReportRollupService;
+import org.example.utils.ReportAggregates;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 每日汇总
+ * 每天为学员（按班级、学历）和员工（按职位）各写一组汇总行：当天结束时的人数和当天的新增、毕业人数；
+ * 已汇总的天不再改变，学员删除、调班后历史趋势保持不变。趋势报表只查询汇总表，每期取新增之和与期末人数
+ * 回溯汇总按现有数据的创建时间、入职日期、毕业时间推算，已删除的记录不计入
+ * 汇总一段日期时只查一次起点人数和按天分组的流量，在内存中逐日累加，每31天一个事务先删除再写入
+ */
+@Slf4j
+@Service
+public class ReportRollupServiceImpl implements ReportRollupService {
+
+    private static final String DAY = "day";
+    private static final String MONTH = "month";
+    //单次查询的期数上限
+    private static final int MAX_DAYS = 366;
+    private static final int MAX_MONTHS = 120;
+    //每个事务写入的天数
+    private static final int WRITE_DAYS = 31;
+    //每条INSERT写入的行数
+    private static final int INSERT_BATCH = 1000;
+
+    //汇总表为空时最多回溯的天数，也是单次重新汇总的天数上限
+    @Value("${tlias.report-rollup.backfill-days:1825}")
+    private int backfillDays;
+
+    @Autowired
+    private ReportRollupMapper reportRollupMapper;
+    @Autowired
+    private ClazzMapper clazzMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    //定时汇总和手动重新汇总不同时进行
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Override
+    public void rollup() {
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            LocalDate yesterday = LocalDate.now().minusDays(1);
+            int students = catchUp(reportRollupMapper.maxStudentStatDate(), reportRollupMapper::minStudentCreateDate,
+                    yesterday, this::rollupStudents);
+            int emps = catchUp(reportRollupMapper.maxEmpStatDate(), reportRollupMapper::minEmpEntryDate,
+                    yesterday, this::rollupEmps);
+            if (students > 0 || emps > 0) {
+                log.info("每日汇总完成，学员{}天，员工{}天，截至{}", students, emps, yesterday);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int backfill(LocalDate begin, LocalDate end) {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        if (begin == null || end == null || begin.isAfter(end)) {
+            throw new BusinessException("请指定正确的日期范围");
+        }
+        if (end.isAfter(yesterday)) {
+            end = yesterday;
+        }
+        if (ChronoUnit.DAYS.between(begin, end) >= backfillDays) {
+            throw new BusinessException("单次最多重新汇总" + backfillDays + "天");
+        }
+        if (!lock.tryLock()) {
+            throw new BusinessException("汇总正在进行，请稍后重试");
+        }
+        try {
+            rollupStudents(begin, end);
+            rollupEmps(begin, end);
+            int days = (int) ChronoUnit.DAYS.between(begin, end) + 1;
+            log.info("重新汇总{}至{}，共{}天", begin, end, days);
+            return days;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public TrendOption studentTrend(LocalDate begin, LocalDate end, String interval, String dimension) {
+        IntFunction<String> naming;
+        if (dimension == null || dimension.isEmpty()) {
+            dimension = null;
+            naming = key -> "全部学员";
+        } else if ("clazz".equals(dimension)) {
+            Map<Integer, String> clazzNames = new HashMap<>();
+            for (Clazz clazz : clazzMapper.clazzList()) {
+                clazzNames.put(clazz.getId(), clazz.getName());
+            }
+            naming = key -> key == 0 ? "未分班" : clazzNames.getOrDefault(key, "已删除班级");
+        } else if ("degree".equals(dimension)) {
+            naming = ReportAggregates::degreeName;
+        } else {
+            throw new BusinessException("不支持的统计维度：" + dimension);
+        }
+        Periods periods = new Periods(begin, end, interval, reportRollupMapper.maxStudentStatDate());
+        List<Map<String, Object>> flows = reportRollupMapper.studentFlows(periods.begin, periods.end, periods.pattern, dimension);
+        List<Map<String, Object>> headcounts = periods.snapshots.isEmpty() ? List.of()
+                : reportRollupMapper.studentHeadcounts(periods.snapshots, periods.pattern, dimension);
+        return assemble(periods, flows, headcounts, true, naming);
+    }
+
+    @Override
+    public TrendOption empTrend(LocalDate begin, LocalDate end, String interval, String dimension) {
+        IntFunction<String> naming;
+        if (dimension == null || dimension.isEmpty()) {
+            dimension = null;
+            naming = key -> "全部员工";
+        } else if ("job".equals(dimension)) {
+            naming = ReportAggregates::jobName;
+        } else {
+            throw new BusinessException("不支持的统计维度：" + dimension);
+        }
+        Periods periods = new Periods(begin, end, interval, reportRollupMapper.maxEmpStatDate());
+        List<Map<String, Object>> flows = reportRollupMapper.empFlows(periods.begin, periods.end, periods.pattern, dimension);
+        List<Map<String, Object>> headcounts = periods.snapshots.isEmpty() ? List.of()
+                : reportRollupMapper.empHeadcounts(periods.snapshots, periods.pattern, dimension);
+        return assemble(periods, flows, headcounts, false, naming);
+    }
+
+    /*
+     * 从上次汇总的下一天汇总到until，返回汇总的天数
+     * */
+    private int catchUp(LocalDate last, Supplier<LocalDate> earliest, LocalDate until,
+                        BiConsumer<LocalDate, LocalDate> rollupRange) {
+        LocalDate from;
+        if (last != null) {
+            from = last.plusDays(1);
+        } else {
+            from = earliest.get();
+            if (from == null) {
+                return 0;
+            }
+            LocalDate limit = until.minusDays(backfillDays - 1);
+            if (from.isBefore(limit)) {
+                from = limit;
+            }
+        }
+        if (from.isAfter(until)) {
+            return 0;
+        }
+        rollupRange.accept(from, until);
+        return (int) ChronoUnit.DAYS.between(from, until) + 1;
+    }
+
+    /*
+     * 汇总学员：起点人数加上每天的新增得到当天人数，有人数或当天有毕业的(班级, 学历)各写一行
+     * */
+    private void rollupStudents(LocalDate begin, LocalDate end) {
+        Map<List<Integer>, Integer> headcounts = new HashMap<>();
+        for (ReportStudentDaily row : reportRollupMapper.studentHeadcountsBefore(begin)) {
+            headcounts.put(List.of(row.getClazzId(), row.getDegree()), row.getHeadcount());
+        }
+        Map<LocalDate, List<ReportStudentDaily>> enrolled = reportRollupMapper.studentEnrolledByDay(begin, end.plusDays(1))
+                .stream().collect(Collectors.groupingBy(ReportStudentDaily::getStatDate));
+        Map<LocalDate, List<ReportStudentDaily>> graduated = reportRollupMapper.studentGraduatedByDay(begin, end)
+                .stream().collect(Collectors.groupingBy(ReportStudentDaily::getStatDate));
+
+        List<ReportStudentDaily> rows = new ArrayList<>();
+        LocalDate windowBegin = begin;
+        for (LocalDate day = begin; !day.isAfter(end); day = day.plusDays(1)) {
+            Map<List<Integer>, ReportStudentDaily> dayRows = new HashMap<>();
+            for (ReportStudentDaily row : enrolled.getOrDefault(day, List.of())) {
+                List<Integer> key = List.of(row.getClazzId(), row.getDegree());
+                headcounts.merge(key, row.getEnrolled(), Integer::sum);
+                studentRow(dayRows, day, key).setEnrolled(row.getEnrolled());
+            }
+            for (ReportStudentDaily row : graduated.getOrDefault(day, List.of())) {
+                studentRow(dayRows, day, List.of(row.getClazzId(), row.getDegree())).setGraduated(row.getGraduated());
+            }
+            for (Map.Entry<List<Integer>, Integer> entry : headcounts.entrySet()) {
+                if (entry.getValue() > 0) {
+                    studentRow(dayRows, day, entry.getKey()).setHeadcount(entry.getValue());
+                }
+            }
+            rows.addAll(dayRows.values());
+            if (day.equals(end) || ChronoUnit.DAYS.between(windowBegin, day) + 1 >= WRITE_DAYS) {
+                write(windowBegin, day, rows, reportRollupMapper::deleteStudentDays, reportRollupMapper::insertStudentDaily);
+                rows = new ArrayList<>();
+                windowBegin = day.plusDays(1);
+            }
+        }
+    }
+
+    private static ReportStudentDaily studentRow(Map<List<Integer>, ReportStudentDaily> dayRows, LocalDate day,
+                                                 List<Integer> key) {
+        return dayRows.computeIfAbsent(key, k -> new ReportStudentDaily(day, k.get(0), k.get(1), 0, 0, 0));
+    }
+
+    /*
+     * 汇总员工：起点人数加上每天的入职得到当天人数，有人数的职位各写一行
+     * */
+    private void rollupEmps(LocalDate begin, LocalDate end) {
+        Map<Integer, Integer> headcounts = new HashMap<>();
+        for (ReportEmpDaily row : reportRollupMapper.empHeadcountsBefore(begin)) {
+            headcounts.put(row.getJob(), row.getHeadcount());
+        }
+        Map<LocalDate, List<ReportEmpDaily>> hired = reportRollupMapper.empHiredByDay(begin, end)
+                .stream().collect(Collectors.groupingBy(ReportEmpDaily::getStatDate));
+
+        List<ReportEmpDaily> rows = new ArrayList<>();
+        LocalDate windowBegin = begin;
+        for (LocalDate day = begin; !day.isAfter(end); day = day.plusDays(1)) {
+            Map<Integer, Integer> dayHired = new HashMap<>();
+            for (ReportEmpDaily row : hired.getOrDefault(day, List.of())) {
+                headcounts.merge(row.getJob(), row.getHired(), Integer::sum);
+                dayHired.put(row.getJob(), row.getHired());
+            }
+            for (Map.Entry<Integer, Integer> entry : headcounts.entrySet()) {
+                if (entry.getValue() > 0) {
+                    rows.add(new ReportEmpDaily(day, entry.getKey(), entry.getValue(), dayHired.getOrDefault(entry.getKey(), 0)));
+                }
+            }
+            if (day.equals(end) || ChronoUnit.DAYS.between(windowBegin, day) + 1 >= WRITE_DAYS) {
+                write(windowBegin, day, rows, reportRollupMapper::deleteEmpDays, reportRollupMapper::insertEmpDaily);
+                rows = new ArrayList<>();
+                windowBegin = day.plusDays(1);
+            }
+        }
+    }
+
+    /*
+     * 一个窗口一个事务，先删除再写入，重复执行结果相同
+     * */
+    private <T> void write(LocalDate begin, LocalDate end, List<T> rows,
+                           BiConsumer<LocalDate, LocalDate> delete, Consumer<List<T>> insert) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            delete.accept(begin, end);
+            for (int from = 0; from < rows.size(); from += INSERT_BATCH) {
+                insert.accept(rows.subList(from, Math.min(from + INSERT_BATCH, rows.size())));
+            }
+        });
+    }
+
+    /*
+     * 按维度组装系列：新增、毕业取各期之和，人数取期末一天；期末尚未汇总的期人数为null
+     * */
+    private static TrendOption assemble(Periods periods, List<Map<String, Object>> flows,
+                                        List<Map<String, Object>> headcounts, boolean withGraduated,
+                                        IntFunction<String> naming) {
+        int size = periods.labels.size();
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            index.put(periods.labels.get(i), i);
+        }
+        //维度取值 -> [期末人数, 新增, 毕业]
+        Map<Integer, long[][]> values = new TreeMap<>();
+        for (Map<String, Object> row : flows) {
+            Integer i = index.get((String) row.get("period"));
+            if (i != null) {
+                long[][] series = values.computeIfAbsent(number(row, "dim").intValue(), k -> new long[3][size]);
+                series[1][i] = number(row, "added").longValue();
+                if (withGraduated) {
+                    series[2][i] = number(row, "graduated").longValue();
+                }
+            }
+        }
+        for (Map<String, Object> row : headcounts) {
+            Integer i = index.get((String) row.get("period"));
+            if (i != null) {
+                long[][] series = values.computeIfAbsent(number(row, "dim").intValue(), k -> new long[3][size]);
+                series[0][i] = number(row, "headcount").longValue();
+            }
+        }
+
+        List<TrendSeries> seriesList = new ArrayList<>(values.size());
+        values.forEach((key, series) -> {
+            List<Long> headcount = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                headcount.add(periods.hasSnapshot[i] ? series[0][i] : null);
+            }
+            seriesList.add(new TrendSeries(naming.apply(key), headcount, boxed(series[1]),
+                    withGraduated ? boxed(series[2]) : null));
+        });
+        return new TrendOption(periods.labels, seriesList);
+    }
+
+    private static Number number(Map<String, Object> row, String column) {
+        Object value = row.get(column);
+        return value == null ? 0 : (Number) value;
+    }
+
+    private static List<Long> boxed(long[] values) {
+        return Arrays.stream(values).boxed().toList();
+    }
+
+    /*
+     * 查询范围内的各期：标签、期末取人数的日期
+     * */
+    private static class Periods {
+        private final LocalDate begin;
+        private final LocalDate end;
+        //与期标签一致的DATE_FORMAT格式
+        private final String pattern;
+        private final List<String> labels = new ArrayList<>();
+        //各期期末已汇总的最后一天，没有已汇总的天的期不在其中
+        private final List<LocalDate> snapshots = new ArrayList<>();
+        private final boolean[] hasSnapshot;
+
+        /*
+         * @param lastRolled 已汇总的最后一天，没有汇总时为null
+         * */
+        private Periods(LocalDate begin, LocalDate end, String interval, LocalDate lastRolled) {
+            boolean monthly;
+            if (interval == null || interval.isEmpty() || MONTH.equals(interval)) {
+                monthly = true;
+            } else if (DAY.equals(interval)) {
+                monthly = false;
+            } else {
+                throw new BusinessException("不支持的统计周期：" + interval);
+            }
+            //默认最近12个月或最近30天，截至昨天
+            if (end == null) {
+                end = LocalDate.now().minusDays(1);
+            }
+            if (begin == null) {
+                begin = monthly ? end.minusMonths(11).withDayOfMonth(1) : end.minusDays(29);
+            }
+            if (begin.isAfter(end)) {
+                throw new BusinessException("开始日期不能晚于结束日期");
+            }
+            long count = monthly
+                    ? ChronoUnit.MONTHS.between(begin.withDayOfMonth(1), end.withDayOfMonth(1)) + 1
+                    : ChronoUnit.DAYS.between(begin, end) + 1;
+            if (count > (monthly ? MAX_MONTHS : MAX_DAYS)) {
+                throw new BusinessException("查询范围过大，按" + (monthly ? "月最多" + MAX_MONTHS + "个月" : "天最多" + MAX_DAYS + "天"));
+            }
+            this.begin = begin;
+            this.end = end;
+            this.pattern = monthly ? "%Y-%m" : "%Y-%m-%d";
+            this.hasSnapshot = new boolean[(int) count];
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(monthly ? "yyyy-MM" : "yyyy-MM-dd");
+            LocalDate start = begin;
+            for (int i = 0; i < count; i++) {
+                LocalDate next = monthly ? start.withDayOfMonth(1).plusMonths(1) : start.plusDays(1);
+                LocalDate last = next.minusDays(1).isAfter(end) ? end : next.minusDays(1);
+                if (lastRolled != null && last.isAfter(lastRolled)) {
+                    last = lastRolled;
+                }
+                labels.add(start.format(formatter));
+                if (lastRolled != null && !last.isBefore(start)) {
+                    snapshots.add(last);
+                    hasSnapshot[i] = true;
+                }
+                start = next;
+            }
+        }
+    }
+}
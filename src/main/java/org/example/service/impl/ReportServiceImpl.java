@@ -5,9 +5,15 @@ import org.example.mapper.EmpMapper;
 import org.example.mapper.StudentMapper;
 import org.example.pojo.ClazzOption;
 import org.example.pojo.JobOption;
+import org.example.pojo.ReportDashboard;
 import org.example.service.ReportService;
+import org.example.utils.ReferenceDataCache;
+import org.example.utils.ReportAggregates;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Map;
@@ -21,10 +27,24 @@ public class ReportServiceImpl implements ReportService {
     private ClazzMapper clazzMapper;
     @Autowired
     private StudentMapper studentMapper;
+    @Autowired
+    private ReportAggregates reportAggregates;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
 
     @Override
     public JobOption getEmpJobData() {
+        //优先读取内存聚合，未就绪时查询数据库
+        JobOption aggregated = reportAggregates.empJobData();
+        if (aggregated != null) {
+            return aggregated;
+        }
+        return queryEmpJobData();
+    }
 
+    private JobOption queryEmpJobData() {
         //1.调用mapper接口，获取统计数据
         List<Map<String, Object>> list = empMapper.countEmpJobData();
 
@@ -41,7 +61,8 @@ public class ReportServiceImpl implements ReportService {
 
     @Override
     public List<Map<String, Object>> getEmpGenderData() {
-        return empMapper.countEmpGenderData();
+        List<Map<String, Object>> aggregated = reportAggregates.empGenderData();
+        return aggregated != null ? aggregated : empMapper.countEmpGenderData();
     }
 
     /*
@@ -49,6 +70,15 @@ public class ReportServiceImpl implements ReportService {
     * */
     @Override
     public ClazzOption studentCountData() {
+        //班级人数取自内存聚合，班级取自班级缓存
+        ClazzOption aggregated = reportAggregates.clazzCountData(referenceDataCache.clazzs().getValue());
+        if (aggregated != null) {
+            return aggregated;
+        }
+        return queryStudentCountData();
+    }
+
+    private ClazzOption queryStudentCountData() {
         List<Map<String, Object>> maps = clazzMapper.studentCountData();
 
         List<Object> clazzList = maps.stream().map(map -> map.get("name")).toList();
@@ -59,6 +89,22 @@ public class ReportServiceImpl implements ReportService {
 
     @Override
     public List<Map<String, Object>> studentDegreeData() {
-        return studentMapper.studentDegreeData();
+        List<Map<String, Object>> aggregated = reportAggregates.studentDegreeData();
+        return aggregated != null ? aggregated : studentMapper.studentDegreeData();
+    }
+
+    /*
+    * 不经缓存依次计算；快照模式不读内存聚合，在一个可重复读的只读事务中查询数据库
+    * */
+    @Override
+    public ReportDashboard dashboard(boolean snapshot) {
+        if (!snapshot) {
+            return new ReportDashboard(getEmpJobData(), getEmpGenderData(), studentCountData(), studentDegreeData());
+        }
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        template.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        return template.execute(status -> new ReportDashboard(queryEmpJobData(), empMapper.countEmpGenderData(),
+                queryStudentCountData(), studentMapper.studentDegreeData()));
     }
 }
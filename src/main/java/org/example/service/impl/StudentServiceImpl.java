@@ -2,31 +2,158 @@ package org.example.service.impl;
 
 import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.example.event.DataChangeEvent;
+import org.example.exception.BusinessException;
+import org.example.mapper.ClazzMapper;
 import org.example.mapper.StudentMapper;
+import org.example.pojo.Clazz;
+import org.example.pojo.ImportResult;
+import org.example.pojo.PageCursor;
 import org.example.pojo.PageResult;
 import org.example.pojo.Student;
 import org.example.pojo.StudentQueryParam;
+import org.example.pojo.SyncResult;
 import org.example.service.StudentService;
+import org.example.utils.CountCache;
+import org.example.utils.CursorUtils;
+import org.example.utils.ExportWriter;
+import org.example.utils.ImportReader;
+import org.example.utils.NameIndexRegistry;
+import org.example.utils.PageUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
 
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class StudentServiceImpl implements StudentService {
 
+    //导出时的性别、是否院校学员、学历名称，下标为编码
+    private static final String[] GENDERS = {null, "男", "女"};
+    private static final String[] YES_NO = {"否", "是"};
+    private static final String[] DEGREES = {null, "初中", "高中", "大专", "本科", "硕士", "博士"};
+    //导入校验
+    private static final Pattern PHONE = Pattern.compile("1\\d{10}");
+    private static final Pattern ID_CARD = Pattern.compile("\\d{17}[\\dXx]");
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-M-d");
+    private static final DateTimeFormatter BASIC_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final LocalDate EXCEL_EPOCH = LocalDate.of(1899, 12, 30);
+    //Excel日期序列号的有效范围：1900-01-01 ~ 2099-12-31
+    private static final long EXCEL_SERIAL_MIN = 2;
+    private static final long EXCEL_SERIAL_MAX = 73050;
+
+    //导入时每块写入的行数
+    @Value("${tlias.student-import.chunk-size:1000}")
+    private int importChunkSize;
+    //同步时每批查重、写入的记录数
+    @Value("${tlias.student-sync.batch-size:500}")
+    private int syncBatchSize;
+    //单次同步最多的记录数
+    @Value("${tlias.student-sync.max-records:10000}")
+    private int syncMaxRecords;
+
     @Autowired
     private StudentMapper studentMapper;
+    @Autowired
+    private CountCache countCache;
+    @Autowired
+    private NameIndexRegistry nameIndexRegistry;
+    @Autowired
+    private ApplicationEventPublisher publisher;
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+    @Autowired
+    private ClazzMapper clazzMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    //导入写入使用的BATCH执行器，参与Spring事务
+    private SqlSessionTemplate batchSessionTemplate;
+
+    @PostConstruct
+    public void init() {
+        batchSessionTemplate = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+    }
 
     /*
      * 学员分页显示
      * */
     @Override
     public PageResult<Student> page(StudentQueryParam studentQueryParam) {
-        PageHelper.startPage(studentQueryParam.getPage(), studentQueryParam.getPageSize());
+        //名称条件先查名称索引
+        studentQueryParam.setNameIds(nameIndexRegistry.resolve(DataChangeEvent.STUDENT, studentQueryParam.getName()));
+        studentQueryParam.setPage(PageUtils.page(studentQueryParam.getPage()));
+        studentQueryParam.setPageSize(PageUtils.pageSize(studentQueryParam.getPageSize()));
+        //传入续传令牌时使用游标分页
+        if (studentQueryParam.getCursor() != null) {
+            return pageByCursor(studentQueryParam);
+        }
+        //总数走计数缓存
+        PageHelper.startPage(studentQueryParam.getPage(), studentQueryParam.getPageSize(), false);
         List<Student> studentList = studentMapper.page(studentQueryParam);
         Page<Student> p = (Page<Student>)studentList;
-        return new PageResult<Student>(p.getTotal(), p.getResult());
+        return new PageResult<Student>(count(studentQueryParam), p.getResult());
+    }
+
+    /*
+    * 按查询条件统计学员总数
+    * */
+    private long count(StudentQueryParam studentQueryParam) {
+        List<Object> key = CountCache.key(studentQueryParam.getName(), studentQueryParam.getDegree(), studentQueryParam.getClazzId());
+        return countCache.count("student", key, studentQueryParam.isApproxTotal(),
+                () -> PageHelper.count(() -> studentMapper.page(studentQueryParam)));
+    }
+
+    /*
+    * 游标分页：按(update_time, id)定位，多查一条判断是否有下一页，只在withTotal时统计总数
+    * */
+    private PageResult<Student> pageByCursor(StudentQueryParam studentQueryParam) {
+        PageCursor cursor = CursorUtils.decode(studentQueryParam.getCursor());
+        studentQueryParam.setCursorTime(null);
+        studentQueryParam.setCursorId(null);
+        Long total = studentQueryParam.isWithTotal() ? count(studentQueryParam) : null;
+
+        if (cursor != null) {
+            studentQueryParam.setCursorTime(cursor.getTime());
+            studentQueryParam.setCursorId(cursor.getId());
+        }
+        int pageSize = studentQueryParam.getPageSize();
+        PageHelper.startPage(1, pageSize + 1, false);
+        List<Student> studentList = studentMapper.page(studentQueryParam);
+        return CursorUtils.toPageResult(studentList, pageSize, total, Student::getUpdateTime, Student::getId);
     }
 
     /*
@@ -43,6 +170,7 @@ public class StudentServiceImpl implements StudentService {
     @Override
     public void update(Student student) {
         studentMapper.update(student);
+        publisher.publishEvent(new DataChangeEvent(DataChangeEvent.STUDENT, List.of(student.getId())));
     }
 
     /*
@@ -51,6 +179,7 @@ public class StudentServiceImpl implements StudentService {
     @Override
     public void insert(Student student) {
         studentMapper.insert(student);
+        publisher.publishEvent(new DataChangeEvent(DataChangeEvent.STUDENT, List.of(student.getId())));
     }
 
     /*
@@ -59,6 +188,8 @@ public class StudentServiceImpl implements StudentService {
     @Override
     public void deleteBatch(List<Long> ids) {
         studentMapper.deleteBatch(ids);
+        publisher.publishEvent(new DataChangeEvent(DataChangeEvent.STUDENT,
+                ids.stream().map(Long::intValue).collect(Collectors.toList())));
     }
 
     /*
@@ -69,4 +200,526 @@ public class StudentServiceImpl implements StudentService {
 
         studentMapper.updateViolation(id, score);
     }
+
+    /*
+    * 按查询条件流式导出学员
+    * 使用独立会话逐行读取，边读边写，内存占用与导出行数无关
+    * */
+    @Override
+    public void export(StudentQueryParam studentQueryParam, ExportWriter writer) throws IOException {
+        studentQueryParam.setNameIds(nameIndexRegistry.resolve(DataChangeEvent.STUDENT, studentQueryParam.getName()));
+        studentQueryParam.setCursor(null);
+        writer.row("ID", "姓名", "学号", "性别", "手机号", "身份证号", "是否院校学员", "联系地址", "最高学历",
+                "毕业时间", "所属班级", "违纪次数", "违纪扣分", "最后修改时间");
+        try (SqlSession session = sqlSessionFactory.openSession();
+             Cursor<Student> students = session.getMapper(StudentMapper.class).cursorPage(studentQueryParam)) {
+            for (Student s : students) {
+                writer.row(s.getId(), s.getName(), s.getNo(), label(GENDERS, s.getGender()), s.getPhone(),
+                        s.getIdCard(), label(YES_NO, s.getIsCollege()), s.getAddress(), label(DEGREES, s.getDegree()),
+                        s.getGraduationDate(), s.getClazzName(), s.getViolationCount(), s.getViolationScore(),
+                        s.getUpdateTime());
+            }
+        }
+        log.info("学员导出完成，共{}行", writer.getWritten() - 1);
+    }
+
+    /*
+    * 查询符合条件的学员ID，流式读取，只保存ID
+    * */
+    @Override
+    public List<Integer> listIds(StudentQueryParam studentQueryParam) throws IOException {
+        studentQueryParam.setNameIds(nameIndexRegistry.resolve(DataChangeEvent.STUDENT, studentQueryParam.getName()));
+        studentQueryParam.setCursor(null);
+        List<Integer> ids = new ArrayList<>();
+        try (SqlSession session = sqlSessionFactory.openSession();
+             Cursor<Integer> cursor = session.getMapper(StudentMapper.class).cursorIds(studentQueryParam)) {
+            cursor.forEach(ids::add);
+        }
+        return ids;
+    }
+
+    /*
+    * 批量导入学员
+    * 逐行读取并校验，校验通过的行按块用批量执行器写入（驱动改写为多值insert），每块一个事务；
+    * 学号、手机号、身份证号在文件内用集合查重，与数据库按块查重，失败的行记录行号和原因（明细最多保留前1000条）
+    * */
+    @Override
+    public ImportResult importStudents(Path file, String format) throws IOException {
+        ImportResult result = new ImportResult();
+        //班级名称/ID -> 班级ID
+        Map<String, Integer> clazzByName = new HashMap<>();
+        Set<Integer> clazzIds = new HashSet<>();
+        for (Clazz clazz : clazzMapper.listNames()) {
+            clazzByName.put(clazz.getName(), clazz.getId());
+            clazzIds.add(clazz.getId());
+        }
+
+        Set<String> seenNos = new HashSet<>();
+        Set<String> seenPhones = new HashSet<>();
+        Set<String> seenIdCards = new HashSet<>();
+        List<Student> chunk = new ArrayList<>(importChunkSize);
+        List<Integer> chunkRows = new ArrayList<>(importChunkSize);
+        try (ImportReader reader = ImportReader.open(file, format)) {
+            Map<String, Integer> columns = importColumns(reader.next());
+            int rowNum = 1;
+            List<String> row;
+            while ((row = reader.next()) != null) {
+                rowNum++;
+                if (row.stream().allMatch(String::isBlank)) {
+                    continue;
+                }
+                result.setTotal(result.getTotal() + 1);
+                String no = cell(row, columns.get("学号"));
+                try {
+                    Student student = parseStudent(row, columns, clazzByName, clazzIds);
+                    if (!seenNos.add(student.getNo())) {
+                        throw new IllegalArgumentException("学号在文件中重复");
+                    }
+                    if (!seenPhones.add(student.getPhone())) {
+                        throw new IllegalArgumentException("手机号在文件中重复");
+                    }
+                    if (student.getIdCard() != null && !seenIdCards.add(student.getIdCard())) {
+                        throw new IllegalArgumentException("身份证号在文件中重复");
+                    }
+                    chunk.add(student);
+                    chunkRows.add(rowNum);
+                } catch (IllegalArgumentException e) {
+                    rowError(result, rowNum, no, e.getMessage());
+                }
+                if (chunk.size() >= importChunkSize) {
+                    importChunk(chunk, chunkRows, result);
+                }
+            }
+        }
+        importChunk(chunk, chunkRows, result);
+        result.getErrors().sort(Comparator.comparingInt(ImportResult.RowError::getRow));
+        log.info("学员导入完成，共{}行，成功{}行，失败{}行", result.getTotal(), result.getSuccess(), result.getFailed());
+        return result;
+    }
+
+    /*
+    * 写入一块：先按学号、手机号、身份证号查重，再在一个事务中批量插入，最后通知名称索引等按ID刷新；
+    * 批量写入失败（如与并发写入冲突）时整块回滚，再逐行写入，只有出错的行记为失败
+    * */
+    private void importChunk(List<Student> chunk, List<Integer> chunkRows, ImportResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<String> nos = chunk.stream().map(Student::getNo).collect(Collectors.toList());
+        Set<String> existing = studentMapper.selectByNos(nos).stream().map(Student::getNo).collect(Collectors.toSet());
+        List<String> phones = chunk.stream().map(Student::getPhone).collect(Collectors.toList());
+        List<String> idCards = chunk.stream().map(Student::getIdCard).filter(Objects::nonNull).collect(Collectors.toList());
+        Set<String> existingPhones = new HashSet<>();
+        Set<String> existingIdCards = new HashSet<>();
+        for (Student owner : studentMapper.selectByPhonesOrIdCards(phones, idCards)) {
+            existingPhones.add(owner.getPhone());
+            if (owner.getIdCard() != null) {
+                existingIdCards.add(owner.getIdCard());
+            }
+        }
+        List<Student> toInsert = new ArrayList<>(chunk.size());
+        List<Integer> toInsertRows = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Student student = chunk.get(i);
+            if (existing.contains(student.getNo())) {
+                rowError(result, chunkRows.get(i), student.getNo(), "学号已存在");
+            } else if (existingPhones.contains(student.getPhone())) {
+                rowError(result, chunkRows.get(i), student.getNo(), "手机号已存在");
+            } else if (student.getIdCard() != null && existingIdCards.contains(student.getIdCard())) {
+                rowError(result, chunkRows.get(i), student.getNo(), "身份证号已存在");
+            } else {
+                toInsert.add(chunk.get(i));
+                toInsertRows.add(chunkRows.get(i));
+            }
+        }
+        chunk.clear();
+        chunkRows.clear();
+        if (toInsert.isEmpty()) {
+            return;
+        }
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                StudentMapper batchMapper = batchSessionTemplate.getMapper(StudentMapper.class);
+                toInsert.forEach(batchMapper::importInsert);
+                batchSessionTemplate.flushStatements();
+            });
+            result.setSuccess(result.getSuccess() + toInsert.size());
+        } catch (DataAccessException e) {
+            //整块回滚，逐行重试找出出错的行
+            log.warn("学员导入批量写入失败，逐行重试，第{}~{}行", toInsertRows.get(0), toInsertRows.get(toInsertRows.size() - 1), e);
+            Iterator<Student> it = toInsert.iterator();
+            Iterator<Integer> rowIt = toInsertRows.iterator();
+            while (it.hasNext()) {
+                Student student = it.next();
+                int row = rowIt.next();
+                try {
+                    studentMapper.importInsert(student);
+                    result.setSuccess(result.getSuccess() + 1);
+                } catch (DataAccessException ex) {
+                    rowError(result, row, student.getNo(), writeError(ex));
+                    it.remove();
+                }
+            }
+            if (toInsert.isEmpty()) {
+                return;
+            }
+        }
+
+        List<Integer> ids = studentMapper.selectByNos(toInsert.stream().map(Student::getNo).collect(Collectors.toList()))
+                .stream().map(Student::getId).collect(Collectors.toList());
+        publisher.publishEvent(new DataChangeEvent(DataChangeEvent.STUDENT, ids));
+    }
+
+    /*
+    * 按学号批量同步学员
+    * 每批先按学号查出已有记录，比较同步字段的内容摘要，未变化的跳过；学号已存在的按学号修改，其余批量新增。
+    * 写入前检查手机号、身份证号是否被其他学号占用，占用的记录不写入并作为该条的失败原因返回，
+    * 不会覆盖其他学员。每批一个事务，修改通过BATCH执行器批量提交，只在本批写入期间持有行锁；
+    * 重复提交同一批数据不产生任何写入
+    * */
+    @Override
+    public SyncResult sync(List<Student> students) {
+        SyncResult result = new SyncResult();
+        if (students == null || students.isEmpty()) {
+            return result;
+        }
+        if (students.size() > syncMaxRecords) {
+            throw new BusinessException("单次最多同步" + syncMaxRecords + "条学员");
+        }
+        Set<Integer> clazzIds = clazzMapper.listNames().stream().map(Clazz::getId).collect(Collectors.toSet());
+        Set<String> seenNos = new HashSet<>();
+        Set<String> seenPhones = new HashSet<>();
+        Set<String> seenIdCards = new HashSet<>();
+        for (Student student : students) {
+            checkSync(student, clazzIds);
+            if (!seenNos.add(student.getNo())) {
+                throw new BusinessException("学号重复：" + student.getNo());
+            }
+            if (!seenPhones.add(student.getPhone())) {
+                throw new BusinessException("手机号重复：" + student.getPhone() + "，学号：" + student.getNo());
+            }
+            if (student.getIdCard() != null && !seenIdCards.add(student.getIdCard())) {
+                throw new BusinessException("身份证号重复，学号：" + student.getNo());
+            }
+        }
+
+        result.setTotal(students.size());
+        List<Integer> changedIds = new ArrayList<>();
+        for (int from = 0; from < students.size(); from += syncBatchSize) {
+            List<Student> batch = students.subList(from, Math.min(from + syncBatchSize, students.size()));
+            Map<String, Student> existing = studentMapper.selectSyncByNos(
+                            batch.stream().map(Student::getNo).collect(Collectors.toList()))
+                    .stream().collect(Collectors.toMap(Student::getNo, s -> s));
+            List<Student> changed = new ArrayList<>(batch.size());
+            List<Integer> changedRows = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                Student student = batch.get(i);
+                Student old = existing.get(student.getNo());
+                if (old != null && contentHash(old).equals(contentHash(student))) {
+                    result.setUnchanged(result.getUnchanged() + 1);
+                } else {
+                    changed.add(student);
+                    changedRows.add(from + i + 1);
+                }
+            }
+            if (changed.isEmpty()) {
+                continue;
+            }
+
+            //手机号、身份证号被其他学号占用的不写入
+            Map<String, String> phoneOwners = new HashMap<>();
+            Map<String, String> idCardOwners = new HashMap<>();
+            List<String> idCards = changed.stream().map(Student::getIdCard).filter(Objects::nonNull).collect(Collectors.toList());
+            for (Student owner : studentMapper.selectByPhonesOrIdCards(
+                    changed.stream().map(Student::getPhone).collect(Collectors.toList()), idCards)) {
+                if (owner.getPhone() != null) {
+                    phoneOwners.put(owner.getPhone(), owner.getNo());
+                }
+                if (owner.getIdCard() != null) {
+                    idCardOwners.put(owner.getIdCard(), owner.getNo());
+                }
+            }
+            List<Student> updates = new ArrayList<>();
+            List<Integer> updateRows = new ArrayList<>();
+            List<Student> inserts = new ArrayList<>();
+            List<Integer> insertRows = new ArrayList<>();
+            for (int i = 0; i < changed.size(); i++) {
+                Student student = changed.get(i);
+                String phoneOwner = phoneOwners.get(student.getPhone());
+                String idCardOwner = student.getIdCard() == null ? null : idCardOwners.get(student.getIdCard());
+                if (phoneOwner != null && !phoneOwner.equals(student.getNo())) {
+                    syncError(result, changedRows.get(i), student.getNo(), "手机号已被学号" + phoneOwner + "使用");
+                } else if (idCardOwner != null && !idCardOwner.equals(student.getNo())) {
+                    syncError(result, changedRows.get(i), student.getNo(), "身份证号已被学号" + idCardOwner + "使用");
+                } else if (existing.containsKey(student.getNo())) {
+                    updates.add(student);
+                    updateRows.add(changedRows.get(i));
+                } else {
+                    inserts.add(student);
+                    insertRows.add(changedRows.get(i));
+                }
+            }
+            writeSyncBatch(updates, updateRows, inserts, insertRows, result);
+            updates.forEach(student -> changedIds.add(existing.get(student.getNo()).getId()));
+            if (!inserts.isEmpty()) {
+                studentMapper.selectByNos(inserts.stream().map(Student::getNo).collect(Collectors.toList()))
+                        .forEach(s -> changedIds.add(s.getId()));
+            }
+        }
+        if (!changedIds.isEmpty()) {
+            publisher.publishEvent(new DataChangeEvent(DataChangeEvent.STUDENT, changedIds));
+        }
+        log.info("学员同步完成，共{}条，新增{}条，修改{}条，未变化{}条，失败{}条",
+                result.getTotal(), result.getInserted(), result.getUpdated(), result.getUnchanged(), result.getFailed());
+        return result;
+    }
+
+    /*
+    * 写入一批同步记录：一个事务内修改走BATCH执行器、新增为一条多值INSERT；
+    * 写入失败（如与并发写入的手机号、身份证号冲突）时整批回滚，再逐条写入，失败的记录作为该条的失败原因返回。
+    * 写入失败的记录从updates、inserts中移除
+    * */
+    private void writeSyncBatch(List<Student> updates, List<Integer> updateRows,
+                                List<Student> inserts, List<Integer> insertRows, SyncResult result) {
+        if (updates.isEmpty() && inserts.isEmpty()) {
+            return;
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                StudentMapper batchMapper = batchSessionTemplate.getMapper(StudentMapper.class);
+                updates.forEach(batchMapper::syncUpdate);
+                if (!inserts.isEmpty()) {
+                    batchMapper.syncInsertBatch(inserts);
+                }
+                batchSessionTemplate.flushStatements();
+            });
+            result.setUpdated(result.getUpdated() + updates.size());
+            result.setInserted(result.getInserted() + inserts.size());
+            return;
+        } catch (DataAccessException e) {
+            log.warn("学员同步批量写入失败，逐条重试，第{}条起", Math.min(
+                    updateRows.isEmpty() ? Integer.MAX_VALUE : updateRows.get(0),
+                    insertRows.isEmpty() ? Integer.MAX_VALUE : insertRows.get(0)), e);
+        }
+        retryRows(updates, updateRows, studentMapper::syncUpdate, result, () -> result.setUpdated(result.getUpdated() + 1));
+        retryRows(inserts, insertRows, student -> studentMapper.syncInsertBatch(List.of(student)), result,
+                () -> result.setInserted(result.getInserted() + 1));
+    }
+
+    /*
+    * 逐条写入，失败的记录记入result并从students中移除
+    * */
+    private void retryRows(List<Student> students, List<Integer> rows, Consumer<Student> write,
+                           SyncResult result, Runnable onSuccess) {
+        Iterator<Student> it = students.iterator();
+        Iterator<Integer> rowIt = rows.iterator();
+        while (it.hasNext()) {
+            Student student = it.next();
+            int row = rowIt.next();
+            try {
+                write.accept(student);
+                onSuccess.run();
+            } catch (DataAccessException e) {
+                syncError(result, row, student.getNo(), writeError(e));
+                it.remove();
+            }
+        }
+    }
+
+    /*
+    * 逐条写入失败的原因
+    * */
+    private static String writeError(DataAccessException e) {
+        return e instanceof DuplicateKeyException ? "学号、手机号或身份证号与已有学员重复" : "写入失败，请检查数据";
+    }
+
+    /*
+    * 校验同步记录，并把空字符串统一为null，与数据库中未填写的字段一致
+    * */
+    private static void checkSync(Student student, Set<Integer> clazzIds) {
+        student.setNo(trimToNull(student.getNo()));
+        student.setName(trimToNull(student.getName()));
+        student.setPhone(trimToNull(student.getPhone()));
+        student.setIdCard(trimToNull(student.getIdCard()));
+        student.setAddress(trimToNull(student.getAddress()));
+        String no = student.getNo();
+        if (no == null || no.length() > 10) {
+            throw new BusinessException("学号不能为空且不能超过10个字符：" + no);
+        }
+        if (student.getName() == null || student.getName().length() > 20) {
+            throw new BusinessException("姓名不能为空且不能超过20个字符，学号：" + no);
+        }
+        if (student.getPhone() == null || !PHONE.matcher(student.getPhone()).matches()) {
+            throw new BusinessException("手机号格式错误，学号：" + no);
+        }
+        if (student.getIdCard() != null && !ID_CARD.matcher(student.getIdCard()).matches()) {
+            throw new BusinessException("身份证号格式错误，学号：" + no);
+        }
+        if ((student.getGender() != null && label(GENDERS, student.getGender()) == null)
+                || (student.getIsCollege() != null && label(YES_NO, student.getIsCollege()) == null)
+                || (student.getDegree() != null && label(DEGREES, student.getDegree()) == null)) {
+            throw new BusinessException("性别、是否院校学员或最高学历取值错误，学号：" + no);
+        }
+        if (student.getClazzId() != null && !clazzIds.contains(student.getClazzId())) {
+            throw new BusinessException("班级不存在：" + student.getClazzId() + "，学号：" + no);
+        }
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /*
+    * 同步字段的内容摘要，字段间以不可见字符分隔，null与空字符串区分
+    * */
+    private static String contentHash(Student s) {
+        StringBuilder sb = new StringBuilder();
+        for (Object value : new Object[]{s.getName(), s.getGender(), s.getPhone(), s.getIdCard(), s.getIsCollege(),
+                s.getAddress(), s.getDegree(), s.getGraduationDate(), s.getClazzId()}) {
+            sb.append(Objects.toString(value, "\u0000")).append('\u0001');
+        }
+        return DigestUtils.md5DigestAsHex(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void syncError(SyncResult result, int row, String no, String message) {
+        result.setFailed(result.getFailed() + 1);
+        ImportResult.addError(result.getErrors(), new ImportResult.RowError(row, no, message));
+    }
+
+    private static void rowError(ImportResult result, int row, String no, String message) {
+        result.setFailed(result.getFailed() + 1);
+        ImportResult.addError(result.getErrors(), new ImportResult.RowError(row, no, message));
+    }
+
+    /*
+    * 表头 -> 列号，列名与导出文件一致，班级可以用"所属班级"(名称)或"班级ID"
+    * */
+    private static Map<String, Integer> importColumns(List<String> header) {
+        if (header == null) {
+            throw new BusinessException("导入文件为空");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(header.get(i).trim(), i);
+        }
+        for (String required : List.of("姓名", "学号", "手机号")) {
+            if (!columns.containsKey(required)) {
+                throw new BusinessException("导入文件缺少列：" + required);
+            }
+        }
+        return columns;
+    }
+
+    /*
+    * 解析并校验一行，校验失败抛出IllegalArgumentException
+    * */
+    private static Student parseStudent(List<String> row, Map<String, Integer> columns,
+                                        Map<String, Integer> clazzByName, Set<Integer> clazzIds) {
+        Student student = new Student();
+        student.setName(required(row, columns, "姓名", 20));
+        student.setNo(required(row, columns, "学号", 10));
+        student.setPhone(required(row, columns, "手机号", 11));
+        if (!PHONE.matcher(student.getPhone()).matches()) {
+            throw new IllegalArgumentException("手机号格式错误");
+        }
+        student.setGender(code(GENDERS, cell(row, columns.get("性别")), "性别"));
+        String idCard = cell(row, columns.get("身份证号"));
+        if (!idCard.isEmpty() && !ID_CARD.matcher(idCard).matches()) {
+            throw new IllegalArgumentException("身份证号格式错误");
+        }
+        student.setIdCard(idCard.isEmpty() ? null : idCard);
+        student.setIsCollege(code(YES_NO, cell(row, columns.get("是否院校学员")), "是否院校学员"));
+        String address = cell(row, columns.get("联系地址"));
+        student.setAddress(address.isEmpty() ? null : address);
+        student.setDegree(code(DEGREES, cell(row, columns.get("最高学历")), "最高学历"));
+        student.setGraduationDate(date(cell(row, columns.get("毕业时间"))));
+
+        String clazzName = cell(row, columns.get("所属班级"));
+        String clazzId = cell(row, columns.get("班级ID"));
+        if (!clazzId.isEmpty()) {
+            Integer id = integer(clazzId, "班级ID");
+            if (!clazzIds.contains(id)) {
+                throw new IllegalArgumentException("班级不存在：" + clazzId);
+            }
+            student.setClazzId(id);
+        } else if (!clazzName.isEmpty()) {
+            Integer id = clazzByName.get(clazzName);
+            if (id == null) {
+                throw new IllegalArgumentException("班级不存在：" + clazzName);
+            }
+            student.setClazzId(id);
+        }
+        return student;
+    }
+
+    private static String cell(List<String> row, Integer column) {
+        return column == null || column >= row.size() ? "" : row.get(column).trim();
+    }
+
+    private static String required(List<String> row, Map<String, Integer> columns, String name, int maxLength) {
+        String value = cell(row, columns.get(name));
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException(name + "不能为空");
+        }
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(name + "不能超过" + maxLength + "个字符");
+        }
+        return value;
+    }
+
+    /*
+    * 名称或编码转为编码，空值返回null
+    * */
+    private static Integer code(String[] labels, String value, String name) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        for (int i = 0; i < labels.length; i++) {
+            if (value.equals(labels[i])) {
+                return i;
+            }
+        }
+        Integer code = integer(value, name);
+        if (code < 0 || code >= labels.length || labels[code] == null) {
+            throw new IllegalArgumentException(name + "取值错误：" + value);
+        }
+        return code;
+    }
+
+    private static Integer integer(String value, String name) {
+        try {
+            return new BigDecimal(value).intValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException(name + "取值错误：" + value);
+        }
+    }
+
+    /*
+    * 日期：yyyy-MM-dd、yyyy/M/d、yyyyMMdd，或Excel日期序列号（仅接受1900~2099年范围内的值）
+    * */
+    private static LocalDate date(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            if (value.matches("\\d{8}")) {
+                return LocalDate.parse(value, BASIC_DATE);
+            }
+            if (value.matches("\\d{1,5}(\\.\\d+)?")) {
+                long serial = (long) Double.parseDouble(value);
+                if (serial < EXCEL_SERIAL_MIN || serial > EXCEL_SERIAL_MAX) {
+                    throw new IllegalArgumentException("毕业时间格式错误：" + value);
+                }
+                return EXCEL_EPOCH.plusDays(serial);
+            }
+            return LocalDate.parse(value.replace('/', '-'), DATE);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("毕业时间格式错误：" + value);
+        }
+    }
+
+    private static String label(String[] labels, Integer code) {
+        return code == null || code < 0 || code >= labels.length ? null : labels[code];
+    }
 }
@@ -0,0 +1,84 @@
+package org.example.task;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.example.mapper.OperateLogMapper;
+import org.example.pojo.OperateLog;
+import org.example.utils.OperateLogArchive;
+import org.example.utils.OperateLogIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 操作日志定时归档
+ * 把早于保留时长的日志按天写入归档分段，分段落盘后再分批从数据库删除
+ */
+@Slf4j
+@Component
+public class OperateLogArchiveTask {
+
+    @Autowired
+    private OperateLogArchive operateLogArchive;
+    @Autowired
+    private OperateLogMapper operateLogMapper;
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+    @Autowired
+    private OperateLogIndex operateLogIndex;
+
+    @Scheduled(cron = "${tlias.operate-log.archive.cron:0 30 2 * * ?}")
+    public void archive() {
+        if (!operateLogArchive.isEnabled()) {
+            return;
+        }
+        //只归档完整的天
+        LocalDateTime cutoff = LocalDateTime.now().minus(operateLogArchive.getHorizon()).toLocalDate().atStartOfDay();
+        LocalDateTime oldest;
+        while ((oldest = operateLogMapper.selectMinOperateTime()) != null && oldest.isBefore(cutoff)) {
+            LocalDate day = oldest.toLocalDate();
+            try {
+                if (archiveDay(day) == 0) {
+                    log.warn("操作日志归档没有删除任何记录，停止本次归档：{}", day);
+                    return;
+                }
+            } catch (Exception e) {
+                log.error("操作日志归档失败：{}", day, e);
+                return;
+            }
+        }
+    }
+
+    /*
+     * 归档一天的日志，返回删除的条数
+     * */
+    private int archiveDay(LocalDate day) throws IOException {
+        Set<Integer> archivedIds = operateLogArchive.archivedIds(day);
+        List<Integer> ids;
+        //流式读取当天日志，不把整天的数据加载到内存
+        try (SqlSession session = sqlSessionFactory.openSession();
+             Cursor<OperateLog> rows = session.getMapper(OperateLogMapper.class)
+                     .cursorByTime(day.atStartOfDay(), day.plusDays(1).atStartOfDay())) {
+            ids = operateLogArchive.write(day, rows, archivedIds);
+        }
+
+        int deleted = 0;
+        int chunkSize = operateLogArchive.getChunkSize();
+        for (int i = 0; i < ids.size(); i += chunkSize) {
+            List<Integer> chunk = ids.subList(i, Math.min(i + chunkSize, ids.size()));
+            deleted += operateLogMapper.deleteByIds(chunk);
+            //删除已提交，从内存索引中移除，条件查询不再命中
+            operateLogIndex.removeAll(chunk);
+        }
+        log.info("操作日志归档：{}，从数据库删除{}条", day, deleted);
+        return deleted;
+    }
+}
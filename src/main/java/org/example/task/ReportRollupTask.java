@@ -0,0 +1,37 @@
+package org.example.task;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.service.ReportRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 每日汇总定时任务
+ * 定期检查并补齐到昨天为止的汇总，每天只有过零点后的第一次检查会写入；停机期间漏掉的天在启动后补齐
+ */
+@Slf4j
+@Component
+public class ReportRollupTask {
+
+    //是否启用每日汇总
+    @Value("${tlias.report-rollup.enabled:true}")
+    private boolean enabled;
+
+    @Autowired
+    private ReportRollupService reportRollupService;
+
+    @Scheduled(initialDelayString = "${tlias.report-rollup.initial-delay:60000}",
+            fixedDelayString = "${tlias.report-rollup.interval:3600000}")
+    public void rollup() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            reportRollupService.rollup();
+        } catch (Exception e) {
+            log.error("每日汇总失败，下次检查时重试", e);
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package org.example.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 异步批量写入器
+ * 请求线程只负责入队，后台线程按批次大小或刷新间隔批量写库；队列满时按溢出策略阻塞、丢弃或落盘，
+ * 落盘数据在队列空闲时回放；应用关闭时(Web容器停止之后、数据源关闭之前)写完队列中剩余数据，
+ * 启动前提交的数据先入队、启动后写出，停止后提交的数据由提交线程同步写入
+ * 子类通过@ConfigurationProperties绑定以下配置项
+ * @param <T> 写入的数据类型
+ */
+@Slf4j
+public abstract class AsyncBatchWriter<T> implements SmartLifecycle, MeterBinder {
+
+    /*
+     * 队列满时的处理策略
+     * */
+    public enum OverflowPolicy {
+        BLOCK, //阻塞请求线程，超过blockTimeout仍无空位则丢弃
+        DROP, //直接丢弃
+        SPILL //追加写入本地落盘文件，稍后回放
+    }
+
+    //队列容量
+    @Getter
+    private int queueCapacity = 10000;
+    //每批最多写入条数
+    @Getter
+    @Setter
+    private int batchSize = 200;
+    //未凑满一批时的最长等待时间
+    @Getter
+    @Setter
+    private Duration flushInterval = Duration.ofSeconds(1);
+    //队列满时的处理策略
+    @Getter
+    @Setter
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    //BLOCK策略下的最长阻塞时间
+    @Getter
+    @Setter
+    private Duration blockTimeout = Duration.ofMillis(500);
+    //落盘文件目录
+    @Getter
+    @Setter
+    private String spillDir = "spill";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final String name;
+    private final Class<T> type;
+
+    private volatile BlockingQueue<T> queue = new ArrayBlockingQueue<>(queueCapacity);
+    private Thread worker;
+    private volatile boolean running;
+    //后台线程已退出，之后提交的数据同步写入
+    private volatile boolean stopped;
+    //回放文件中已成功写入的行数，写库失败重试时跳过
+    private long replayedLines;
+    //回放失败后暂停回放的截止时间
+    private long replayPausedUntil;
+
+    private final Object spillLock = new Object();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    protected AsyncBatchWriter(String name, Class<T> type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    /**
+     * 修改队列容量，只在配置绑定时（启动前）调用，此时队列中还没有数据
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * 批量写入，由后台线程调用
+     */
+    protected abstract void writeBatch(List<T> batch);
+
+    /**
+     * 写入前的预处理（入队之后、写库或落盘之前），在后台线程或落盘的请求线程中执行
+     */
+    protected T prepare(T item) {
+        return item;
+    }
+
+    /**
+     * 提交一条数据
+     */
+    public void submit(T item) {
+        if (stopped) {
+            flush(List.of(item));
+            return;
+        }
+        if (queue.offer(item)) {
+            //入队时后台线程恰好退出，由提交线程写出
+            if (stopped) {
+                drain();
+            }
+            return;
+        }
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    if (queue.offer(item, blockTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                dropped.increment();
+                log.warn("{}写入队列已满，等待{}后丢弃", name, blockTimeout);
+                break;
+            case SPILL:
+                spill(List.of(item));
+                break;
+            default:
+                dropped.increment();
+                log.warn("{}写入队列已满，丢弃", name);
+        }
+    }
+
+    @Override
+    public void start() {
+        stopped = false;
+        running = true;
+        worker = new Thread(this::runLoop, name + "-writer");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("{}异步写入器已启动，batchSize={}，flushInterval={}，overflowPolicy={}", name, batchSize, flushInterval, overflowPolicy);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            worker.join(Math.max(flushInterval.toMillis() * 2, 1000) + 30_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        stopped = true;
+        drain();
+        log.info("{}异步写入器已停止，剩余未写入{}条", name, queue.size());
+    }
+
+    /*
+     * 在当前线程写出队列中剩余的数据
+     * */
+    private void drain() {
+        List<T> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            flush(rest);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /*
+     * 在Web容器停止之后再停止，保证已接收请求的日志都能入队并写出
+     * */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+
+    private void runLoop() {
+        List<T> batch = new ArrayList<>(batchSize);
+        long deadline = 0;
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                long wait = batch.isEmpty() ? flushInterval.toMillis() : deadline - System.currentTimeMillis();
+                T item = wait > 0 && running ? queue.poll(wait, TimeUnit.MILLISECONDS) : queue.poll();
+                if (item != null) {
+                    if (batch.isEmpty()) {
+                        deadline = System.currentTimeMillis() + flushInterval.toMillis();
+                    }
+                    batch.add(item);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                boolean due = !batch.isEmpty() && (batch.size() >= batchSize
+                        || System.currentTimeMillis() >= deadline || !running);
+                if (due) {
+                    flush(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+                if (batch.isEmpty() && queue.isEmpty() && running) {
+                    replaySpill();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (Exception e) {
+                log.error("{}写入线程异常", name, e);
+            }
+        }
+    }
+
+    private void flush(List<T> batch) {
+        List<T> prepared = new ArrayList<>(batch.size());
+        for (T item : batch) {
+            prepared.add(prepare(item));
+        }
+        try {
+            writeBatch(prepared);
+            written.add(prepared.size());
+        } catch (Exception e) {
+            //写库失败时，SPILL策略落盘稍后重试，其他策略记为失败
+            if (overflowPolicy == OverflowPolicy.SPILL) {
+                log.error("{}批量写入失败，{}条落盘待重试", name, prepared.size(), e);
+                spill(prepared);
+            } else {
+                log.error("{}批量写入失败，丢弃{}条", name, prepared.size(), e);
+                failed.add(prepared.size());
+            }
+        }
+    }
+
+    /*
+     * 追加写入落盘文件，每行一条JSON
+     * */
+    private void spill(List<T> items) {
+        synchronized (spillLock) {
+            try {
+                Path file = spillFile();
+                Files.createDirectories(file.getParent());
+                try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (T item : items) {
+                        writer.write(objectMapper.writeValueAsString(prepare(item)));
+                        writer.newLine();
+                    }
+                }
+                spilled.add(items.size());
+            } catch (IOException e) {
+                log.error("{}落盘失败，丢弃{}条", name, items.size(), e);
+                dropped.add(items.size());
+            }
+        }
+    }
+
+    /*
+     * 回放落盘文件：先改名为.replay再读取，回放期间新的落盘数据写入新文件
+     * */
+    private void replaySpill() throws IOException {
+        if (System.currentTimeMillis() < replayPausedUntil) {
+            return;
+        }
+        Path replay = spillFile().resolveSibling(name + ".replay");
+        synchronized (spillLock) {
+            if (!Files.exists(replay)) {
+                if (!Files.exists(spillFile())) {
+                    return;
+                }
+                Files.move(spillFile(), replay, StandardCopyOption.ATOMIC_MOVE);
+                replayedLines = 0;
+            }
+        }
+
+        long line = 0;
+        List<T> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = Files.newBufferedReader(replay, StandardCharsets.UTF_8)) {
+            String json;
+            while ((json = reader.readLine()) != null) {
+                if (line++ < replayedLines || json.isEmpty()) {
+                    continue;
+                }
+                batch.add(objectMapper.readValue(json, type));
+                if (batch.size() >= batchSize) {
+                    writeReplayed(batch, line);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                writeReplayed(batch, line);
+            }
+        } catch (Exception e) {
+            log.warn("{}回放落盘数据失败，已回放{}行，30秒后重试", name, replayedLines, e);
+            replayPausedUntil = System.currentTimeMillis() + 30_000;
+            return;
+        }
+        Files.delete(replay);
+        log.info("{}落盘数据回放完成，共{}行", name, line);
+    }
+
+    private void writeReplayed(List<T> batch, long line) {
+        writeBatch(batch);
+        written.add(batch.size());
+        replayedLines = line;
+    }
+
+    private Path spillFile() {
+        return Paths.get(spillDir, name + ".spill");
+    }
+
+    /*
+     * 注册到actuator的metrics中，/actuator/metrics/batch.writer.queue.depth?tag=writer:xxx
+     * */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("batch.writer.queue.depth", this, w -> w.queue == null ? 0 : w.queue.size())
+                .tag("writer", name).register(registry);
+        FunctionCounter.builder("batch.writer.written", written, LongAdder::sum).tag("writer", name).register(registry);
+        FunctionCounter.builder("batch.writer.dropped", dropped, LongAdder::sum).tag("writer", name).register(registry);
+        FunctionCounter.builder("batch.writer.spilled", spilled, LongAdder::sum).tag("writer", name).register(registry);
+        FunctionCounter.builder("batch.writer.failed", failed, LongAdder::sum).tag("writer", name).register(registry);
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.utils;
+
+import java.util.Set;
+
+/**
+ * 操作日志的参数、返回值序列化器
+ * 默认实现为BoundedAuditSerializer，可注册@Primary的实现替换
+ */
+public interface AuditSerializer {
+
+    /**
+     * 序列化为日志字符串
+     * @param value 方法参数或返回值
+     * @param redactFields 需要脱敏的字段名
+     * @return 日志字符串
+     */
+    String serialize(Object value, Set<String> redactFields);
+}
@@ -0,0 +1,228 @@
+package org.example.utils;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.temporal.TemporalAccessor;
+import java.util.*;
+
+/**
+ * 有界的操作日志序列化器
+ * 按字段字节预算、嵌套深度、集合元素个数截断，超出部分以截断标记代替，避免把整个对象图渲染成大字符串
+ */
+@Data
+@Component
+@ConfigurationProperties("tlias.operate-log.serializer")
+public class BoundedAuditSerializer implements AuditSerializer {
+
+    public static final String TRUNCATED = "...[truncated]";
+    public static final String REDACTED = "***";
+
+    //每个日志字段最多字节数(UTF-8)
+    private int maxBytes = 2048;
+    //对象最大嵌套深度
+    private int maxDepth = 4;
+    //数组、集合、Map最多输出的元素个数
+    private int maxElements = 20;
+
+    private static final ClassValue<Field[]> FIELDS = new ClassValue<Field[]>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = type; c != null && !isJdkType(c); c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())
+                            && !field.isSynthetic()) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields.toArray(new Field[0]);
+        }
+    };
+
+    @Override
+    public String serialize(Object value, Set<String> redactFields) {
+        Output out = new Output(maxBytes - TRUNCATED.length());
+        write(value, 0, out, redactFields, Collections.newSetFromMap(new IdentityHashMap<>()));
+        return out.toString();
+    }
+
+    private void write(Object value, int depth, Output out, Set<String> redactFields, Set<Object> visiting) {
+        if (out.full) {
+            return;
+        }
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+                || value instanceof Character || value instanceof Enum || value instanceof TemporalAccessor
+                || value instanceof Date || value instanceof UUID) {
+            out.append(value.toString());
+            return;
+        }
+        //请求、响应、流等对象只记录类型
+        if (value instanceof ServletRequest || value instanceof ServletResponse
+                || value instanceof InputStream || value instanceof OutputStream) {
+            out.append("<").append(value.getClass().getSimpleName()).append(">");
+            return;
+        }
+        if (value instanceof MultipartFile) {
+            MultipartFile file = (MultipartFile) value;
+            out.append("<file ").append(file.getOriginalFilename()).append(", ").append(String.valueOf(file.getSize())).append("B>");
+            return;
+        }
+        if (!visiting.add(value)) {
+            out.append("<cycle>");
+            return;
+        }
+        try {
+            if (value.getClass().isArray()) {
+                int length = Array.getLength(value);
+                List<Object> elements = new ArrayList<>(Math.min(length, maxElements));
+                for (int i = 0; i < length && i < maxElements; i++) {
+                    elements.add(Array.get(value, i));
+                }
+                writeElements(elements, length, depth, out, redactFields, visiting);
+            } else if (value instanceof Collection) {
+                Collection<?> collection = (Collection<?>) value;
+                writeElements(collection, collection.size(), depth, out, redactFields, visiting);
+            } else if (value instanceof Map) {
+                writeMap((Map<?, ?>) value, depth, out, redactFields, visiting);
+            } else if (isJdkType(value.getClass())) {
+                out.append(value.toString());
+            } else {
+                writeObject(value, depth, out, redactFields, visiting);
+            }
+        } finally {
+            visiting.remove(value);
+        }
+    }
+
+    private void writeElements(Iterable<?> elements, int size, int depth, Output out, Set<String> redactFields, Set<Object> visiting) {
+        if (depth >= maxDepth) {
+            out.append("[").append(String.valueOf(size)).append(" items]");
+            return;
+        }
+        out.append("[");
+        int i = 0;
+        for (Object element : elements) {
+            if (i >= maxElements) {
+                out.append(", ...").append(String.valueOf(size - i)).append(" more");
+                break;
+            }
+            if (i++ > 0) {
+                out.append(", ");
+            }
+            write(element, depth + 1, out, redactFields, visiting);
+        }
+        out.append("]");
+    }
+
+    private void writeMap(Map<?, ?> map, int depth, Output out, Set<String> redactFields, Set<Object> visiting) {
+        if (depth >= maxDepth) {
+            out.append("{").append(String.valueOf(map.size())).append(" entries}");
+            return;
+        }
+        out.append("{");
+        int i = 0;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (i >= maxElements) {
+                out.append(", ...").append(String.valueOf(map.size() - i)).append(" more");
+                break;
+            }
+            if (i++ > 0) {
+                out.append(", ");
+            }
+            String key = String.valueOf(entry.getKey());
+            out.append(key).append("=");
+            if (redactFields.contains(key)) {
+                out.append(REDACTED);
+            } else {
+                write(entry.getValue(), depth + 1, out, redactFields, visiting);
+            }
+        }
+        out.append("}");
+    }
+
+    private void writeObject(Object value, int depth, Output out, Set<String> redactFields, Set<Object> visiting) {
+        out.append(value.getClass().getSimpleName());
+        if (depth >= maxDepth) {
+            out.append("(...)");
+            return;
+        }
+        out.append("(");
+        int i = 0;
+        for (Field field : FIELDS.get(value.getClass())) {
+            if (i++ > 0) {
+                out.append(", ");
+            }
+            out.append(field.getName()).append("=");
+            if (redactFields.contains(field.getName())) {
+                out.append(REDACTED);
+                continue;
+            }
+            try {
+                write(field.get(value), depth + 1, out, redactFields, visiting);
+            } catch (IllegalAccessException e) {
+                out.append("?");
+            }
+            if (out.full) {
+                return;
+            }
+        }
+        out.append(")");
+    }
+
+    private static boolean isJdkType(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.") || name.startsWith("sun.");
+    }
+
+    /*
+     * 按UTF-8字节计数的输出缓冲，超出预算时追加截断标记并停止输出
+     * */
+    private static class Output {
+        private final StringBuilder sb = new StringBuilder();
+        private int remaining;
+        private boolean full;
+
+        private Output(int budget) {
+            this.remaining = Math.max(budget, 0);
+        }
+
+        private Output append(String s) {
+            if (full) {
+                return this;
+            }
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                int bytes = c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate(c) ? 2 : 3;
+                if (bytes > remaining) {
+                    sb.append(TRUNCATED);
+                    full = true;
+                    return this;
+                }
+                remaining -= bytes;
+                sb.append(c);
+            }
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.example.utils;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mapper.TableStatMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 分页总数缓存
+ * 以表名和规范化后的查询条件为key缓存COUNT结果，翻页时只执行一次分页查询
+ * 每张表维护一个写入版本，CountCacheInterceptor拦截到该表的insert/update/delete时版本加一，旧版本的缓存随之失效，另有TTL兜底
+ */
+@Slf4j
+@Component
+public class CountCache implements MeterBinder {
+
+    //缓存有效期（秒）
+    @Value("${tlias.count-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+    //最多缓存的条件组合数
+    @Value("${tlias.count-cache.max-size:1000}")
+    private int maxSize;
+
+    //CountCacheInterceptor依赖本类，延迟注入避免与SqlSessionFactory循环依赖
+    @Lazy
+    @Autowired
+    private TableStatMapper tableStatMapper;
+
+    //表名 -> 写入版本
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Map<List<Object>, Entry> cache = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder approximates = new LongAdder();
+
+    /**
+     * 规范化查询条件：空字符串等同于未传
+     */
+    public static List<Object> key(Object... values) {
+        Object[] normalized = values.clone();
+        for (int i = 0; i < normalized.length; i++) {
+            if (normalized[i] instanceof String && ((String) normalized[i]).isEmpty()) {
+                normalized[i] = null;
+            }
+        }
+        return Arrays.asList(normalized);
+    }
+
+    /**
+     * 查询总数
+     * @param table 查询的主表，该表有写入时缓存失效
+     * @param key 规范化后的查询条件
+     * @param approximate 无筛选条件时是否使用表统计信息估算
+     * @param counter 缓存未命中时执行的COUNT查询
+     */
+    public long count(String table, List<Object> key, boolean approximate, Supplier<Long> counter) {
+        if (approximate && key.stream().allMatch(v -> v == null)) {
+            Long rows = tableStatMapper.approximateRows(table);
+            if (rows != null) {
+                approximates.increment();
+                return rows;
+            }
+        }
+
+        List<Object> cacheKey = Arrays.asList(table, key);
+        long now = System.currentTimeMillis();
+        //先取版本再查询，查询期间有写入时缓存的是旧版本，下次读取即失效
+        long generation = generation(table).get();
+        Entry entry = cache.get(cacheKey);
+        if (entry != null && entry.generation == generation && entry.expireAt > now) {
+            hits.increment();
+            return entry.count;
+        }
+
+        misses.increment();
+        long count = counter.get();
+        if (cache.size() >= maxSize) {
+            cache.entrySet().removeIf(e -> e.getValue().expireAt <= now
+                    || e.getValue().generation != generation(String.valueOf(e.getKey().get(0))).get());
+            if (cache.size() >= maxSize) {
+                cache.clear();
+            }
+        }
+        cache.put(cacheKey, new Entry(count, generation, now + ttlSeconds * 1000));
+        return count;
+    }
+
+    /**
+     * 表有写入，使该表的总数缓存失效
+     * 处于事务中时在事务结束后再失效一次，防止并发请求在提交前把旧总数按新版本缓存
+     */
+    public void invalidate(String table) {
+        AtomicLong generation = generation(table);
+        generation.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    generation.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    private AtomicLong generation(String table) {
+        return generations.computeIfAbsent(table, k -> new AtomicLong());
+    }
+
+    /*
+     * 注册到actuator的metrics中，/actuator/metrics/count.cache.requests
+     * */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("count.cache.size", cache, Map::size).register(registry);
+        FunctionCounter.builder("count.cache.requests", hits, LongAdder::sum).tag("result", "hit").register(registry);
+        FunctionCounter.builder("count.cache.requests", misses, LongAdder::sum).tag("result", "miss").register(registry);
+        FunctionCounter.builder("count.cache.requests", approximates, LongAdder::sum).tag("result", "approximate").register(registry);
+    }
+
+    private static class Entry {
+        private final long count;
+        private final long generation;
+        private final long expireAt;
+
+        private Entry(long count, long generation, long expireAt) {
+            this.count = count;
+            this.generation = generation;
+            this.expireAt = expireAt;
+        }
+    }
+}
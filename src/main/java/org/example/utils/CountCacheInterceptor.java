@@ -0,0 +1,49 @@
+package org.example.utils;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * MyBatis拦截器：拦截所有insert/update/delete语句，按语句写入的表使CountCache失效
+ * 写入的表从SQL中解析，每条语句只解析一次
+ */
+@Component
+@Intercepts(@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}))
+public class CountCacheInterceptor implements Interceptor {
+
+    private static final Pattern WRITE_TABLE = Pattern.compile(
+            "^\\s*(?:insert\\s+(?:ignore\\s+)?into|replace\\s+into|update|delete\\s+from)\\s+`?(\\w+)`?",
+            Pattern.CASE_INSENSITIVE);
+
+    @Autowired
+    private CountCache countCache;
+
+    //语句ID -> 写入的表，无法解析时为空字符串
+    private final Map<String, String> statementTables = new ConcurrentHashMap<>();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        Object parameter = invocation.getArgs()[1];
+        String table = statementTables.computeIfAbsent(ms.getId(), id -> {
+            Matcher matcher = WRITE_TABLE.matcher(ms.getBoundSql(parameter).getSql());
+            return matcher.find() ? matcher.group(1).toLowerCase() : "";
+        });
+        if (!table.isEmpty()) {
+            countCache.invalidate(table);
+        }
+        return result;
+    }
+}
@@ -1,8 +1,11 @@
 package org.example.utils;
 
+import io.jsonwebtoken.Claims;
+
 public class CurrentHolder {
 
     private static final ThreadLocal<Integer> CURRENT_LOCAL = new ThreadLocal<>();
+    private static final ThreadLocal<Claims> CURRENT_CLAIMS = new ThreadLocal<>();
 
     public static void setCurrentId(Integer employeeId) {
         CURRENT_LOCAL.set(employeeId);
@@ -12,7 +15,16 @@ public class CurrentHolder {
         return CURRENT_LOCAL.get();
     }
 
+    public static void setCurrentClaims(Claims claims) {
+        CURRENT_CLAIMS.set(claims);
+    }
+
+    public static Claims getCurrentClaims() {
+        return CURRENT_CLAIMS.get();
+    }
+
     public static void remove() {
         CURRENT_LOCAL.remove();
+        CURRENT_CLAIMS.remove();
     }
 }
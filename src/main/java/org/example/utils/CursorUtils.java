@@ -0,0 +1,59 @@
+package org.example.utils;
+
+import org.example.exception.BadRequestException;
+import org.example.pojo.PageCursor;
+import org.example.pojo.PageResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页的续传令牌编解码
+ * 令牌为"时间|id"的Base64URL编码，对客户端不透明
+ */
+public class CursorUtils {
+
+    /**
+     * 编码续传令牌
+     */
+    public static String encode(LocalDateTime time, Integer id) {
+        String raw = time + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 根据多查一条的查询结果生成游标分页结果
+     * @param rows 按(时间, id)倒序查询的最多pageSize + 1条记录
+     * @param total 总数，不统计时为null
+     */
+    public static <T> PageResult<T> toPageResult(List<T> rows, int pageSize, Long total,
+                                                 Function<T, LocalDateTime> time, Function<T, Integer> id) {
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = new ArrayList<>(rows.subList(0, pageSize));
+            T last = rows.get(pageSize - 1);
+            nextCursor = encode(time.apply(last), id.apply(last));
+        }
+        return new PageResult<>(total, rows, nextCursor);
+    }
+
+    /**
+     * 解码续传令牌，空令牌表示第一页，返回null
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf('|');
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, split)), Integer.valueOf(raw.substring(split + 1)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("分页游标无效");
+        }
+    }
+}
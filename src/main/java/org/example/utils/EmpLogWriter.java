@@ -0,0 +1,30 @@
+package org.example.utils;
+
+import org.example.mapper.EmpLogMapper;
+import org.example.pojo.EmpLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 员工操作日志异步批量写入器
+ * 由EmpLogService在事务结束后提交，后台线程以多行insert批量写入emp_log
+ */
+@Component
+@ConfigurationProperties("tlias.emp-log.writer")
+public class EmpLogWriter extends AsyncBatchWriter<EmpLog> {
+
+    @Autowired
+    private EmpLogMapper empLogMapper;
+
+    public EmpLogWriter() {
+        super("emp_log", EmpLog.class);
+    }
+
+    @Override
+    protected void writeBatch(List<EmpLog> batch) {
+        empLogMapper.insertBatch(batch);
+    }
+}
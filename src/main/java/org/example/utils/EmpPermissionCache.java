@@ -0,0 +1,98 @@
+package org.example.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mapper.EmpMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 员工职位及权限缓存
+ * PermissionAspect和EmpController共用，稳态下权限校验不再访问数据库
+ * 员工修改/删除时主动失效，另有TTL兜底
+ */
+@Slf4j
+@Component
+public class EmpPermissionCache {
+
+    //缓存有效期（秒）
+    @Value("${tlias.permission-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Autowired
+    private EmpMapper empMapper;
+    @Autowired
+    private PermissionRegistry permissionRegistry;
+
+    private final Map<Integer, EmpPermission> cache = new ConcurrentHashMap<>();
+
+    /**
+     * 获取员工的职位及权限
+     * @param empId 员工ID
+     * @return 员工不存在时返回null
+     */
+    public EmpPermission get(Integer empId) {
+        long now = System.currentTimeMillis();
+        EmpPermission cached = cache.get(empId);
+        if (cached != null && cached.getExpireAt() > now) {
+            return cached;
+        }
+
+        //从数据库查询用户职位
+        Integer job = empMapper.selectJobById(empId);
+        if (job == null) {
+            cache.remove(empId);
+            return null;
+        }
+        EmpPermission loaded = new EmpPermission(job, permissionRegistry.maskOf(job),
+                permissionRegistry.permissionsOf(job), now + ttlSeconds * 1000);
+        cache.put(empId, loaded);
+        return loaded;
+    }
+
+    /**
+     * 失效指定员工的缓存
+     * 处于事务中时在事务结束后再失效一次，防止并发请求在提交前把旧职位重新加载进缓存
+     */
+    public void invalidate(Collection<Integer> empIds) {
+        if (empIds == null || empIds.isEmpty()) {
+            return;
+        }
+        empIds.forEach(cache::remove);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    empIds.forEach(cache::remove);
+                }
+            });
+        }
+        log.info("员工权限缓存失效：{}", empIds);
+    }
+
+    public void invalidate(Integer empId) {
+        invalidate(Collections.singletonList(empId));
+    }
+
+    /*
+     * 员工职位及对应的权限掩码、权限集合
+     * */
+    @Getter
+    @AllArgsConstructor
+    public static class EmpPermission {
+        private final Integer job;
+        private final long mask;
+        private final Set<String> permissions;
+        private final long expireAt;
+    }
+}
@@ -0,0 +1,322 @@
+package org.example.utils;
+
+import org.example.exception.BusinessException;
+import org.springframework.http.ContentDisposition;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 导出文件的流式写出器
+ * 逐行写入响应流，不在内存中保存已写出的行；支持CSV和XLSX两种格式
+ * XLSX按OOXML格式直接写出：工作表以内联字符串逐行写入压缩流，工作簿等描述文件在结束时写入，
+ * 超过单个工作表的行数上限时自动新建工作表，并在新工作表中重复表头（第一行）
+ * CSV中以= + - @开头的文本前加单引号，防止在Excel中打开时被当作公式执行；XLSX的文本单元格不会被当作公式
+ */
+public abstract class ExportWriter {
+
+    public static final String CSV = "csv";
+    public static final String XLSX = "xlsx";
+    //每写出多少行推送一次，客户端可以持续收到数据
+    private static final int FLUSH_ROWS = 1000;
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private long written;
+
+    /**
+     * 按格式创建写出器
+     * @param format csv或xlsx
+     */
+    public static ExportWriter of(String format, OutputStream out) {
+        if (CSV.equalsIgnoreCase(format)) {
+            return new Csv(out);
+        }
+        if (XLSX.equalsIgnoreCase(format)) {
+            return new Xlsx(out);
+        }
+        throw new BusinessException("不支持的导出格式：" + format);
+    }
+
+    /**
+     * 校验导出格式
+     */
+    public static String checkFormat(String format) {
+        if (!CSV.equalsIgnoreCase(format) && !XLSX.equalsIgnoreCase(format)) {
+            throw new BusinessException("不支持的导出格式：" + format);
+        }
+        return format.toLowerCase();
+    }
+
+    /**
+     * 导出文件的Content-Type
+     */
+    public static String contentType(String format) {
+        return XLSX.equalsIgnoreCase(format)
+                ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
+                : "text/csv;charset=UTF-8";
+    }
+
+    /**
+     * 导出文件的Content-Disposition，文件名为前缀加导出时间
+     */
+    public static String attachment(String prefix, String format) {
+        String filename = prefix + "-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss")) + "." + format;
+        return ContentDisposition.attachment().filename(filename, StandardCharsets.UTF_8).build().toString();
+    }
+
+    /**
+     * 写出一行，null写为空单元格，数字写为数值，时间格式化为yyyy-MM-dd HH:mm:ss，其他按toString写为文本
+     */
+    public final void row(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] instanceof LocalDateTime) {
+                values[i] = DATE_TIME.format((LocalDateTime) values[i]);
+            }
+        }
+        writeRow(values);
+        if (++written % FLUSH_ROWS == 0) {
+            flush();
+        }
+    }
+
+    /**
+     * 已写出的行数（含表头）
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    protected abstract void writeRow(Object[] values) throws IOException;
+
+    /**
+     * 把已写入的内容推送给客户端
+     */
+    public abstract void flush() throws IOException;
+
+    /**
+     * 结束文件，不关闭底层输出流；导出中途失败时不调用，客户端得到的是不完整的文件
+     */
+    public abstract void finish() throws IOException;
+
+    /*
+     * CSV，带BOM以便Excel识别UTF-8
+     * */
+    private static class Csv extends ExportWriter {
+        //Excel会当作公式解析的首字符
+        private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+        private final Writer writer;
+        private boolean started;
+
+        private Csv(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        }
+
+        @Override
+        protected void writeRow(Object[] values) throws IOException {
+            if (!started) {
+                writer.write('\uFEFF');
+                started = true;
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] instanceof Number) {
+                    writer.write(values[i].toString());
+                } else if (values[i] != null) {
+                    writer.write(escape(neutralize(values[i].toString())));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        /*
+         * 以公式字符开头的文本加单引号前缀，ImportReader读取时去掉；本身以单引号加公式字符开头的也加，读取后与原值一致
+         * */
+        private static String neutralize(String value) {
+            int i = 0;
+            while (i < value.length() && value.charAt(i) == '\'') {
+                i++;
+            }
+            return i < value.length() && FORMULA_PREFIXES.indexOf(value.charAt(i)) >= 0 ? "'" + value : value;
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /*
+     * XLSX，工作表使用内联字符串，不需要共享字符串表
+     * */
+    private static class Xlsx extends ExportWriter {
+        //单个工作表最多行数（Excel上限）
+        private static final int MAX_ROWS = 1_048_576;
+
+        private final ZipOutputStream zip;
+        private final Writer writer;
+        private int sheets;
+        private int rows;
+        //表头，新建工作表时重复写入
+        private Object[] header;
+
+        private Xlsx(OutputStream out) {
+            this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+            this.writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 64 * 1024);
+        }
+
+        @Override
+        protected void writeRow(Object[] values) throws IOException {
+            if (sheets == 0) {
+                header = values.clone();
+                startSheet();
+            } else if (rows == MAX_ROWS) {
+                endSheet();
+                startSheet();
+                writeCells(header);
+            }
+            writeCells(values);
+        }
+
+        private void writeCells(Object[] values) throws IOException {
+            rows++;
+            writer.write("<row r=\"");
+            writer.write(Integer.toString(rows));
+            writer.write("\">");
+            for (Object value : values) {
+                if (value == null) {
+                    writer.write("<c/>");
+                } else if (value instanceof Number) {
+                    writer.write("<c t=\"n\"><v>");
+                    writer.write(value.toString());
+                    writer.write("</v></c>");
+                } else {
+                    writer.write("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+                    writer.write(xml(value.toString()));
+                    writer.write("</t></is></c>");
+                }
+            }
+            writer.write("</row>");
+        }
+
+        private void startSheet() throws IOException {
+            sheets++;
+            rows = 0;
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + sheets + ".xml"));
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                    + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>");
+        }
+
+        private void endSheet() throws IOException {
+            writer.write("</sheetData></worksheet>");
+            writer.flush();
+            zip.closeEntry();
+        }
+
+        private void entry(String name, String content) throws IOException {
+            zip.putNextEntry(new ZipEntry(name));
+            writer.write(content);
+            writer.flush();
+            zip.closeEntry();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+            zip.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (sheets == 0) {
+                startSheet();
+            }
+            endSheet();
+
+            StringBuilder types = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                    + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                    + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                    + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                    + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>");
+            StringBuilder workbook = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                    + "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\""
+                    + " xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\"><sheets>");
+            StringBuilder rels = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">");
+            for (int i = 1; i <= sheets; i++) {
+                types.append("<Override PartName=\"/xl/worksheets/sheet").append(i)
+                        .append(".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+                workbook.append("<sheet name=\"Sheet").append(i).append("\" sheetId=\"").append(i)
+                        .append("\" r:id=\"rId").append(i).append("\"/>");
+                rels.append("<Relationship Id=\"rId").append(i)
+                        .append("\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet")
+                        .append(i).append(".xml\"/>");
+            }
+            entry("[Content_Types].xml", types.append("</Types>").toString());
+            entry("_rels/.rels", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                    + "</Relationships>");
+            entry("xl/workbook.xml", workbook.append("</sheets></workbook>").toString());
+            entry("xl/_rels/workbook.xml.rels", rels.append("</Relationships>").toString());
+            zip.finish();
+            zip.flush();
+        }
+
+        /*
+         * XML转义，并去掉XML不允许的控制字符
+         * */
+        private static String xml(String value) {
+            StringBuilder sb = null;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                String replacement = null;
+                switch (c) {
+                    case '<': replacement = "&lt;"; break;
+                    case '>': replacement = "&gt;"; break;
+                    case '&': replacement = "&amp;"; break;
+                    case '"': replacement = "&quot;"; break;
+                    //XML解析时会把回车换行规范化为换行，回车写为字符引用才能原样读回
+                    case '\r': replacement = "&#13;"; break;
+                    default:
+                        if (c < 0x20 && c != '\t' && c != '\n') {
+                            replacement = "";
+                        }
+                }
+                if (replacement != null && sb == null) {
+                    sb = new StringBuilder(value.length() + 16).append(value, 0, i);
+                }
+                if (sb != null) {
+                    if (replacement != null) {
+                        sb.append(replacement);
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+            return sb == null ? value : sb.toString();
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package org.example.utils;
+
+import org.example.exception.BusinessException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * 导入文件的流式读取器，与ExportWriter对应
+ * 逐行读取CSV或XLSX的第一个工作表，每行返回各列的文本，不把整个文件加载到内存
+ * XLSX只在内存中保存共享字符串表，工作表用StAX逐行解析
+ */
+public abstract class ImportReader implements Closeable {
+
+    /**
+     * 按格式打开文件
+     * @param format csv或xlsx
+     */
+    public static ImportReader open(Path file, String format) throws IOException {
+        if (ExportWriter.CSV.equalsIgnoreCase(format)) {
+            return new Csv(file);
+        }
+        if (ExportWriter.XLSX.equalsIgnoreCase(format)) {
+            return new Xlsx(file);
+        }
+        throw new BusinessException("不支持的导入格式：" + format);
+    }
+
+    /**
+     * 读取下一行
+     * @return 各列文本，空单元格为空字符串；没有更多行时返回null
+     */
+    public abstract List<String> next() throws IOException;
+
+    /*
+     * CSV，支持引号包裹的字段（字段内可含逗号、引号和换行），忽略UTF-8 BOM
+     * 去掉ExportWriter为防止公式注入加在= + - @前的单引号
+     * */
+    private static class Csv extends ImportReader {
+        //与ExportWriter一致的公式首字符
+        private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+        private final BufferedReader reader;
+        private boolean first = true;
+
+        private Csv(Path file) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(
+                    Files.newInputStream(file), StandardCharsets.UTF_8), 64 * 1024);
+        }
+
+        @Override
+        public List<String> next() throws IOException {
+            int c = reader.read();
+            if (first) {
+                first = false;
+                if (c == '\uFEFF') {
+                    c = reader.read();
+                }
+            }
+            if (c == -1) {
+                return null;
+            }
+            List<String> row = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (; c != -1; c = reader.read()) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            field.append('"');
+                        } else {
+                            reader.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    row.add(unquoteFormula(field));
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            row.add(unquoteFormula(field));
+            return row;
+        }
+
+        /*
+         * 单引号之后（跳过其余单引号）是公式字符时，去掉开头的一个单引号
+         * */
+        private static String unquoteFormula(StringBuilder field) {
+            if (field.length() == 0 || field.charAt(0) != '\'') {
+                return field.toString();
+            }
+            int i = 1;
+            while (i < field.length() && field.charAt(i) == '\'') {
+                i++;
+            }
+            return i < field.length() && FORMULA_PREFIXES.indexOf(field.charAt(i)) >= 0 ? field.substring(1) : field.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /*
+     * XLSX，读取工作簿中的第一个工作表
+     * */
+    private static class Xlsx extends ImportReader {
+        private static final XMLInputFactory FACTORY = XMLInputFactory.newFactory();
+
+        static {
+            //不解析外部实体
+            FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        }
+
+        private final ZipFile zip;
+        private final List<String> sharedStrings;
+        private final InputStream sheetStream;
+        private final XMLStreamReader sheet;
+
+        private Xlsx(Path file) throws IOException {
+            this.zip = new ZipFile(file.toFile());
+            try {
+                this.sharedStrings = readSharedStrings();
+                ZipEntry entry = zip.getEntry(firstSheet());
+                if (entry == null) {
+                    throw new BusinessException("Excel文件中没有工作表");
+                }
+                this.sheetStream = zip.getInputStream(entry);
+                this.sheet = FACTORY.createXMLStreamReader(sheetStream);
+            } catch (XMLStreamException e) {
+                zip.close();
+                throw new BusinessException("Excel文件格式错误");
+            } catch (IOException | RuntimeException e) {
+                zip.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public List<String> next() throws IOException {
+            try {
+                while (sheet.hasNext()) {
+                    if (sheet.next() == XMLStreamConstants.START_ELEMENT && "row".equals(sheet.getLocalName())) {
+                        return readRow();
+                    }
+                }
+                return null;
+            } catch (XMLStreamException e) {
+                throw new BusinessException("Excel文件格式错误");
+            }
+        }
+
+        /*
+         * 读取一行，单元格可能不连续，按r属性中的列号定位
+         * */
+        private List<String> readRow() throws XMLStreamException {
+            List<String> row = new ArrayList<>();
+            while (sheet.hasNext()) {
+                int event = sheet.next();
+                if (event == XMLStreamConstants.END_ELEMENT && "row".equals(sheet.getLocalName())) {
+                    break;
+                }
+                if (event != XMLStreamConstants.START_ELEMENT || !"c".equals(sheet.getLocalName())) {
+                    continue;
+                }
+                String ref = sheet.getAttributeValue(null, "r");
+                String type = sheet.getAttributeValue(null, "t");
+                int column = ref == null ? row.size() : column(ref);
+                String value = readCell(type);
+                while (row.size() < column) {
+                    row.add("");
+                }
+                row.add(value);
+            }
+            return row;
+        }
+
+        private String readCell(String type) throws XMLStreamException {
+            StringBuilder value = new StringBuilder();
+            boolean text = false;
+            while (sheet.hasNext()) {
+                int event = sheet.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = sheet.getLocalName();
+                    text = "v".equals(name) || "t".equals(name);
+                } else if (event == XMLStreamConstants.CHARACTERS && text) {
+                    value.append(sheet.getText());
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if ("c".equals(sheet.getLocalName())) {
+                        break;
+                    }
+                    text = false;
+                }
+            }
+            if ("s".equals(type)) {
+                if (value.length() == 0) {
+                    return "";
+                }
+                int index = Integer.parseInt(value.toString().trim());
+                return index < sharedStrings.size() ? sharedStrings.get(index) : "";
+            }
+            if ("b".equals(type)) {
+                return "1".equals(value.toString()) ? "TRUE" : "FALSE";
+            }
+            return value.toString();
+        }
+
+        /*
+         * 列号：A -> 0, B -> 1, AA -> 26
+         * */
+        private static int column(String ref) {
+            int column = 0;
+            for (int i = 0; i < ref.length() && Character.isLetter(ref.charAt(i)); i++) {
+                column = column * 26 + (Character.toUpperCase(ref.charAt(i)) - 'A' + 1);
+            }
+            return column - 1;
+        }
+
+        private List<String> readSharedStrings() throws IOException, XMLStreamException {
+            List<String> strings = new ArrayList<>();
+            ZipEntry entry = zip.getEntry("xl/sharedStrings.xml");
+            if (entry == null) {
+                return strings;
+            }
+            try (InputStream in = zip.getInputStream(entry)) {
+                XMLStreamReader reader = FACTORY.createXMLStreamReader(in);
+                StringBuilder current = null;
+                boolean text = false;
+                //富文本的拼音注释(rPh)不计入文本
+                int phonetic = 0;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        String name = reader.getLocalName();
+                        if ("si".equals(name)) {
+                            current = new StringBuilder();
+                        } else if ("rPh".equals(name)) {
+                            phonetic++;
+                        }
+                        text = "t".equals(name) && phonetic == 0;
+                    } else if (event == XMLStreamConstants.CHARACTERS && text && current != null) {
+                        current.append(reader.getText());
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        String name = reader.getLocalName();
+                        if ("si".equals(name) && current != null) {
+                            strings.add(current.toString());
+                            current = null;
+                        } else if ("rPh".equals(name)) {
+                            phonetic--;
+                        }
+                        text = false;
+                    }
+                }
+                reader.close();
+            }
+            return strings;
+        }
+
+        /*
+         * 工作簿中第一个工作表的路径，解析失败时使用默认路径
+         * */
+        private String firstSheet() throws IOException, XMLStreamException {
+            String relId = null;
+            ZipEntry workbook = zip.getEntry("xl/workbook.xml");
+            if (workbook != null) {
+                try (InputStream in = zip.getInputStream(workbook)) {
+                    XMLStreamReader reader = FACTORY.createXMLStreamReader(in);
+                    while (reader.hasNext() && relId == null) {
+                        if (reader.next() == XMLStreamConstants.START_ELEMENT && "sheet".equals(reader.getLocalName())) {
+                            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                                if ("id".equals(reader.getAttributeLocalName(i))) {
+                                    relId = reader.getAttributeValue(i);
+                                }
+                            }
+                        }
+                    }
+                    reader.close();
+                }
+            }
+            ZipEntry rels = zip.getEntry("xl/_rels/workbook.xml.rels");
+            if (relId != null && rels != null) {
+                try (InputStream in = zip.getInputStream(rels)) {
+                    XMLStreamReader reader = FACTORY.createXMLStreamReader(in);
+                    while (reader.hasNext()) {
+                        if (reader.next() == XMLStreamConstants.START_ELEMENT
+                                && relId.equals(reader.getAttributeValue(null, "Id"))) {
+                            String target = reader.getAttributeValue(null, "Target");
+                            reader.close();
+                            return target.startsWith("/") ? target.substring(1) : "xl/" + target;
+                        }
+                    }
+                    reader.close();
+                }
+            }
+            return "xl/worksheets/sheet1.xml";
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                sheet.close();
+            } catch (XMLStreamException e) {
+                //忽略
+            }
+            sheetStream.close();
+            zip.close();
+        }
+    }
+}
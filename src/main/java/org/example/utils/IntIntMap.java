@@ -0,0 +1,185 @@
+package org.example.utils;
+
+import java.util.Arrays;
+
+/**
+ * int到int的哈希表
+ * 开放寻址、线性探测，键和值保存在两个int数组中，不装箱；删除时把后续冲突的键前移，不留墓碑
+ * 非线程安全，由调用方加锁
+ */
+public class IntIntMap {
+
+    //空槽位标记，该值不能作为键
+    public static final int FREE = Integer.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int threshold;
+
+    public IntIntMap() {
+        this(16);
+    }
+
+    public IntIntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expected / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * 查询键对应的值
+     * @param missing 键不存在时返回的值
+     */
+    public int get(int key, int missing) {
+        int slot = find(key);
+        return slot < 0 ? missing : values[slot];
+    }
+
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * 写入键值
+     * @return 原来的值，键不存在时返回missing
+     */
+    public int put(int key, int value, int missing) {
+        checkKey(key);
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                int old = values[slot];
+                values[slot] = value;
+                return old;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > threshold) {
+            rehash(keys.length << 1);
+        }
+        return missing;
+    }
+
+    /**
+     * 在键原有的值上加delta，键不存在时视为0；结果为0时移除该键
+     * @return 加后的值
+     */
+    public int addTo(int key, int delta) {
+        int result = get(key, 0) + delta;
+        if (result == 0) {
+            remove(key, 0);
+        } else {
+            put(key, result, 0);
+        }
+        return result;
+    }
+
+    /**
+     * 移除键
+     * @return 原来的值，键不存在时返回missing
+     */
+    public int remove(int key, int missing) {
+        int slot = find(key);
+        if (slot < 0) {
+            return missing;
+        }
+        int old = values[slot];
+        int mask = keys.length - 1;
+        //把后续同一探测链上的键前移到空出的槽位
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != FREE) {
+            int home = mix(keys[next]) & mask;
+            //home不在(gap, next]区间内时，该键可以前移到gap
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = FREE;
+        size--;
+        return old;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        size = 0;
+    }
+
+    /**
+     * 遍历所有键值，遍历期间不能修改
+     */
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                visitor.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /*
+     * 遍历键值的回调
+     * */
+    @FunctionalInterface
+    public interface Visitor {
+        void accept(int key, int value);
+    }
+
+    private int find(int key) {
+        if (key == FREE) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                put(oldKeys[i], oldValues[i], 0);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static void checkKey(int key) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("不支持的键：" + key);
+        }
+    }
+
+    /*
+     * 打散连续的ID，避免线性探测时聚集
+     * */
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
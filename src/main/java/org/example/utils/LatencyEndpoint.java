@@ -0,0 +1,24 @@
+package org.example.utils;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 接口耗时端点：/actuator/latency
+ */
+@Component
+@Endpoint(id = "latency")
+public class LatencyEndpoint {
+
+    @Autowired
+    private LatencyRecorder latencyRecorder;
+
+    @ReadOperation
+    public Map<String, Object> latency() {
+        return latencyRecorder.snapshot();
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.utils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 接口耗时统计
+ * 每个接口、每个权限校验对应一个Micrometer Timer，按滑动时间窗口统计p50/p95/p99/max
+ */
+@Component
+public class LatencyRecorder {
+
+    public static final String ENDPOINT = "endpoint.latency";
+    public static final String PERMISSION = "permission.check.latency";
+
+    //滑动窗口长度，窗口内的分位数每window/bufferLength轮转一次
+    @Value("${tlias.latency.window:1m}")
+    private Duration window;
+    @Value("${tlias.latency.buffer-length:3}")
+    private int bufferLength;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> endpointTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> permissionTimers = new ConcurrentHashMap<>();
+
+    /**
+     * 记录接口耗时
+     * @param endpoint 接口，如StudentController.page
+     * @param nanos 耗时（纳秒）
+     */
+    public void recordEndpoint(String endpoint, long nanos) {
+        endpointTimers.computeIfAbsent(endpoint, key -> timer(ENDPOINT, "endpoint", key))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录权限校验耗时
+     */
+    public void recordPermission(String permission, long nanos) {
+        permissionTimers.computeIfAbsent(permission, key -> timer(PERMISSION, "permission", key))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String name, String tag, String value) {
+        return Timer.builder(name)
+                .tag(tag, value)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .distributionStatisticExpiry(window)
+                .distributionStatisticBufferLength(bufferLength)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 当前窗口内的耗时快照（毫秒），key为接口或权限标识
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("window", window.toString());
+        result.put("endpoints", snapshot(endpointTimers));
+        result.put("permissions", snapshot(permissionTimers));
+        return result;
+    }
+
+    private Map<String, Map<String, Object>> snapshot(Map<String, Timer> timers) {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        timers.forEach((key, timer) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", timer.count());
+            for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+                stats.put("p" + Math.round(percentile.percentile() * 100), percentile.value(TimeUnit.MILLISECONDS));
+            }
+            stats.put("max", timer.max(TimeUnit.MILLISECONDS));
+            result.put(key, stats);
+        });
+        return result;
+    }
+}
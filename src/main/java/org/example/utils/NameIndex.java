@@ -0,0 +1,171 @@
+package org.example.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 名称子串索引
+ * 对名称的每个单字和相邻两字建立倒排表（中文姓名较短，双字比三字更合适），
+ * 子串查询时取关键字所有双字的倒排表求交集，再逐个校验是否包含关键字
+ * 全量加载完成前(ready为false)返回null，由调用方回退到SQL LIKE查询
+ */
+public class NameIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Integer, String> names = new HashMap<>();
+    private Map<String, Set<Integer>> grams = new HashMap<>();
+    private boolean ready;
+    //加载期间发生变更的ID，加载完成后需重新查询
+    private final Set<Integer> pending = new LinkedHashSet<>();
+
+    /**
+     * 全量加载，替换当前索引
+     * @return 加载期间发生变更的ID
+     */
+    public List<Integer> load(Map<Integer, String> all) {
+        Map<Integer, String> loadedNames = new HashMap<>(all.size() * 2);
+        Map<String, Set<Integer>> loadedGrams = new HashMap<>();
+        all.forEach((id, name) -> add(loadedNames, loadedGrams, id, name));
+
+        lock.writeLock().lock();
+        try {
+            names = loadedNames;
+            grams = loadedGrams;
+            ready = true;
+            List<Integer> changed = new ArrayList<>(pending);
+            pending.clear();
+            return changed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 应用变更：current中有的ID更新名称，没有的删除
+     * 加载完成前只记录ID
+     */
+    public void apply(Collection<Integer> ids, Map<Integer, String> current) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                pending.addAll(ids);
+                return;
+            }
+            for (Integer id : ids) {
+                remove(id);
+                String name = current.get(id);
+                if (name != null) {
+                    add(names, grams, id, name);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查询名称包含关键字的ID
+     * @return 索引未就绪时返回null
+     */
+    public Set<Integer> search(String keyword) {
+        String key = keyword.toLowerCase();
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return null;
+            }
+            if (key.length() == 1) {
+                return new HashSet<>(grams.getOrDefault(key, Collections.emptySet()));
+            }
+            //从最短的倒排表开始求交集
+            List<Set<Integer>> postings = new ArrayList<>();
+            for (int i = 0; i + 2 <= key.length(); i++) {
+                Set<Integer> posting = grams.get(key.substring(i, i + 2));
+                if (posting == null) {
+                    return new HashSet<>();
+                }
+                postings.add(posting);
+            }
+            postings.sort((a, b) -> Integer.compare(a.size(), b.size()));
+            Set<Integer> result = new HashSet<>();
+            for (Integer id : postings.get(0)) {
+                if (names.get(id).contains(key)) {
+                    result.add(id);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 清空索引，等待重新全量加载
+     */
+    public void reset() {
+        lock.writeLock().lock();
+        try {
+            names = new HashMap<>();
+            grams = new HashMap<>();
+            ready = false;
+            pending.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void remove(Integer id) {
+        String old = names.remove(id);
+        if (old == null) {
+            return;
+        }
+        for (String gram : grams(old)) {
+            Set<Integer> posting = grams.get(gram);
+            if (posting != null && posting.remove(id) && posting.isEmpty()) {
+                grams.remove(gram);
+            }
+        }
+    }
+
+    private static void add(Map<Integer, String> names, Map<String, Set<Integer>> grams, Integer id, String name) {
+        if (name == null) {
+            return;
+        }
+        String normalized = name.toLowerCase();
+        names.put(id, normalized);
+        for (String gram : grams(normalized)) {
+            grams.computeIfAbsent(gram, k -> new HashSet<>()).add(id);
+        }
+    }
+
+    /*
+     * 单字和相邻两字
+     * */
+    private static Set<String> grams(String name) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i < name.length(); i++) {
+            result.add(name.substring(i, i + 1));
+            if (i + 2 <= name.length()) {
+                result.add(name.substring(i, i + 2));
+            }
+        }
+        return result;
+    }
+}
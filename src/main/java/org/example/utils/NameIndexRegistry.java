@@ -0,0 +1,177 @@
+package org.example.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.event.DataChangeEvent;
+import org.example.mapper.ClazzMapper;
+import org.example.mapper.EmpMapper;
+import org.example.mapper.StudentMapper;
+import org.example.pojo.Clazz;
+import org.example.pojo.Emp;
+import org.example.pojo.Student;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 员工、学员、班级名称的子串索引，以及员工、学员姓名的拼音前缀树
+ * 启动后在后台全量加载（失败时定时重试），之后由DataChangeEvent增量维护；
+ * 分页查询前把名称条件解析为ID集合，未就绪或命中过多时返回null，回退到SQL LIKE；
+ * 输入联想只查前缀树，不访问数据库
+ */
+@Slf4j
+@Component
+public class NameIndexRegistry {
+
+    //是否启用名称索引
+    @Value("${tlias.name-index.enabled:true}")
+    private boolean enabled;
+    //命中ID超过该数量时回退到SQL LIKE，避免过长的IN列表
+    @Value("${tlias.name-index.max-ids:1000}")
+    private int maxIds;
+
+    @Autowired
+    private EmpMapper empMapper;
+    @Autowired
+    private StudentMapper studentMapper;
+    @Autowired
+    private ClazzMapper clazzMapper;
+
+    private final Map<String, NameIndex> indexes = Map.of(
+            DataChangeEvent.EMP, new NameIndex(),
+            DataChangeEvent.STUDENT, new NameIndex(),
+            DataChangeEvent.CLAZZ, new NameIndex());
+    private final Map<String, PinyinTrie> tries = Map.of(
+            DataChangeEvent.EMP, new PinyinTrie(),
+            DataChangeEvent.STUDENT, new PinyinTrie());
+
+    /**
+     * 把名称条件解析为ID集合
+     * @param table 表名，见DataChangeEvent
+     * @param name 名称关键字
+     * @return 不需要按名称过滤或需要回退到SQL LIKE时返回null
+     */
+    public List<Integer> resolve(String table, String name) {
+        if (!enabled || name == null || name.isEmpty()) {
+            return null;
+        }
+        Set<Integer> ids = indexes.get(table).search(name);
+        if (ids == null || ids.size() > maxIds) {
+            return null;
+        }
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * 按拼音全拼、首字母或原文前缀联想
+     * @param table 表名，见DataChangeEvent
+     * @return 前缀树未加载完成时返回空列表
+     */
+    public List<PinyinTrie.Match> suggest(String table, String prefix, int limit) {
+        PinyinTrie trie = tries.get(table);
+        if (!enabled || trie == null || prefix == null || prefix.isBlank()) {
+            return Collections.emptyList();
+        }
+        return trie.search(prefix.trim(), limit);
+    }
+
+    /*
+     * 全量加载尚未就绪的索引，启动后立即执行，数据库不可用时每分钟重试
+     * */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${tlias.name-index.retry-interval:60000}")
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        load(DataChangeEvent.EMP, empMapper::listNames, Emp::getId, Emp::getName, empMapper::selectByIds);
+        load(DataChangeEvent.STUDENT, studentMapper::listNames, Student::getId, Student::getName, studentMapper::selectByIds);
+        load(DataChangeEvent.CLAZZ, clazzMapper::listNames, Clazz::getId, Clazz::getName, clazzMapper::selectByIds);
+    }
+
+    /*
+     * 事务提交后按ID重新查询名称；不在事务中发布的事件立即处理
+     * */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDataChange(DataChangeEvent event) {
+        if (!enabled || event.getIds() == null || event.getIds().isEmpty()) {
+            return;
+        }
+        try {
+            switch (event.getTable()) {
+                case DataChangeEvent.EMP:
+                    reload(event.getTable(), event.getIds(), empMapper::selectByIds, Emp::getId, Emp::getName);
+                    break;
+                case DataChangeEvent.STUDENT:
+                    reload(event.getTable(), event.getIds(), studentMapper::selectByIds, Student::getId, Student::getName);
+                    break;
+                case DataChangeEvent.CLAZZ:
+                    reload(event.getTable(), event.getIds(), clazzMapper::selectByIds, Clazz::getId, Clazz::getName);
+                    break;
+                default:
+            }
+        } catch (Exception e) {
+            //增量更新失败时清空索引，由定时任务重新加载，期间回退到SQL LIKE
+            log.error("名称索引更新失败，重新加载：{}", event, e);
+            indexes.get(event.getTable()).reset();
+            PinyinTrie trie = tries.get(event.getTable());
+            if (trie != null) {
+                trie.reset();
+            }
+        }
+    }
+
+    private <T> void load(String table, Supplier<List<T>> loader, Function<T, Integer> id,
+                          Function<T, String> name, Function<List<Integer>, List<T>> byIds) {
+        NameIndex index = indexes.get(table);
+        PinyinTrie trie = tries.get(table);
+        boolean loadTrie = trie != null && !trie.isReady();
+        if (index.isReady() && !loadTrie) {
+            return;
+        }
+        try {
+            Map<Integer, String> all = new HashMap<>();
+            for (T row : loader.get()) {
+                all.put(id.apply(row), name.apply(row));
+            }
+            Set<Integer> changed = new LinkedHashSet<>();
+            if (!index.isReady()) {
+                changed.addAll(index.load(all));
+            }
+            if (loadTrie) {
+                changed.addAll(trie.load(all));
+            }
+            if (!changed.isEmpty()) {
+                reload(table, new ArrayList<>(changed), byIds, id, name);
+            }
+            log.info("{}名称索引加载完成，{}条", table, all.size());
+        } catch (Exception e) {
+            log.warn("{}名称索引加载失败，稍后重试：{}", table, e.getMessage());
+        }
+    }
+
+    private <T> void reload(String table, List<Integer> ids, Function<List<Integer>, List<T>> byIds,
+                            Function<T, Integer> id, Function<T, String> name) {
+        NameIndex index = indexes.get(table);
+        PinyinTrie trie = tries.get(table);
+        Map<Integer, String> current = new HashMap<>();
+        boolean anyReady = index.isReady() || (trie != null && trie.isReady());
+        for (T row : anyReady ? byIds.apply(ids) : Collections.<T>emptyList()) {
+            current.put(id.apply(row), name.apply(row));
+        }
+        index.apply(ids, current);
+        if (trie != null) {
+            trie.apply(ids, current);
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package org.example.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.example.pojo.OperateLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 操作日志归档存储
+ * 过期日志按天写入本地只追加的分段文件(gzip压缩，每行一条JSON，按(operate_time, id)倒序)，
+ * 每个分段附带一个索引文件记录时间范围、ID范围和条数；同一天再次归档时写入带序号的新分段
+ * 读取时按需打开分段并流式多路归并，不会把分段整体加载到内存
+ */
+@Slf4j
+@Component
+@ConfigurationProperties("tlias.operate-log.archive")
+public class OperateLogArchive {
+
+    //按(operate_time, id)倒序，即分页展示顺序
+    public static final Comparator<OperateLog> NEWEST_FIRST = Comparator.comparing(OperateLog::getOperateTime)
+            .thenComparing(OperateLog::getId).reversed();
+
+    private static final String PREFIX = "operate_log-";
+    private static final String SEGMENT_SUFFIX = ".jsonl.gz";
+    private static final String INDEX_SUFFIX = ".idx";
+
+    //是否开启定时归档
+    @Getter
+    @Setter
+    private boolean enabled = false;
+    //数据库中保留的时长，更早的日志按天归档
+    @Getter
+    @Setter
+    private Duration horizon = Duration.ofDays(90);
+    //分段文件目录
+    @Getter
+    @Setter
+    private String dir = "archive";
+    //归档后每次删除的条数
+    @Getter
+    @Setter
+    private int chunkSize = 1000;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    //已归档分段，按最新一条记录倒序
+    private volatile List<Segment> segments = List.of();
+
+    /*
+     * 启动时加载已有分段的索引
+     * */
+    @PostConstruct
+    public void load() throws IOException {
+        Path root = Paths.get(dir);
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        List<Segment> loaded = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, PREFIX + "*" + INDEX_SUFFIX)) {
+            for (Path file : files) {
+                Segment segment = objectMapper.readValue(file.toFile(), Segment.class);
+                if (Files.exists(root.resolve(segment.getFile()))) {
+                    loaded.add(segment);
+                } else {
+                    log.warn("操作日志归档分段文件不存在，忽略索引: {}", file);
+                }
+            }
+        }
+        publish(loaded);
+        log.info("加载操作日志归档分段{}个，共{}条", loaded.size(), count());
+    }
+
+    /**
+     * 把一天的日志写入新的分段文件
+     * @param day 日期
+     * @param rows 当天的日志，须按(operate_time, id)倒序
+     * @param archivedIds 已归档过的日志ID，跳过不再写入
+     * @return 读取到的全部日志ID（包括跳过的），写入完成后可从数据库删除
+     */
+    public synchronized List<Integer> write(LocalDate day, Iterable<OperateLog> rows, Set<Integer> archivedIds) throws IOException {
+        Path root = Paths.get(dir);
+        Files.createDirectories(root);
+        Path tmp = root.resolve(PREFIX + day + ".tmp");
+
+        List<Integer> ids = new ArrayList<>();
+        Segment segment = new Segment();
+        segment.setDay(day);
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(tmp)), StandardCharsets.UTF_8))) {
+            for (OperateLog row : rows) {
+                ids.add(row.getId());
+                if (archivedIds.contains(row.getId())) {
+                    continue;
+                }
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.newLine();
+                //倒序写入，第一条最新，最后一条最旧
+                if (segment.getCount() == 0) {
+                    segment.setMaxTime(row.getOperateTime());
+                    segment.setMaxId(row.getId());
+                }
+                segment.setMinTime(row.getOperateTime());
+                segment.setMinId(row.getId());
+                segment.setCount(segment.getCount() + 1);
+            }
+        }
+        if (segment.getCount() == 0) {
+            Files.delete(tmp);
+            return ids;
+        }
+
+        //先落分段文件再写索引，只有索引存在的分段才会被读取
+        String name = PREFIX + day;
+        for (int n = 1; Files.exists(root.resolve(name + SEGMENT_SUFFIX)); n++) {
+            name = PREFIX + day + "-" + n;
+        }
+        segment.setFile(name + SEGMENT_SUFFIX);
+        Files.move(tmp, root.resolve(segment.getFile()), StandardCopyOption.ATOMIC_MOVE);
+        Path tmpIndex = root.resolve(name + ".idx.tmp");
+        objectMapper.writeValue(tmpIndex.toFile(), segment);
+        Files.move(tmpIndex, root.resolve(name + INDEX_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+
+        List<Segment> updated = new ArrayList<>(segments);
+        updated.add(segment);
+        publish(updated);
+        log.info("操作日志归档完成：{}，{}条", segment.getFile(), segment.getCount());
+        return ids;
+    }
+
+    /**
+     * 查询某天已归档的日志ID，用于重复归档时去重（上次归档写完分段但未删除数据库记录）
+     */
+    public Set<Integer> archivedIds(LocalDate day) throws IOException {
+        Set<Integer> ids = new HashSet<>();
+        for (Segment segment : segments) {
+            if (!segment.getDay().equals(day)) {
+                continue;
+            }
+            try (SegmentReader reader = new SegmentReader(segment, null)) {
+                while (reader.head != null) {
+                    ids.add(reader.head.getId());
+                    reader.advance();
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 已归档日志总数
+     */
+    public long count() {
+        long count = 0;
+        for (Segment segment : segments) {
+            count += segment.getCount();
+        }
+        return count;
+    }
+
+    /**
+     * 已归档的最新一条日志的(operate_time, id)，没有归档数据时返回null
+     */
+    public OperateLog newest() {
+        List<Segment> current = segments;
+        return current.isEmpty() ? null : key(current.get(0).getMaxTime(), current.get(0).getMaxId());
+    }
+
+    /**
+     * 按偏移量读取归档日志，整天的分段按索引中的条数直接跳过
+     */
+    public List<OperateLog> read(long skip, int limit) {
+        List<Segment> current = segments;
+        int start = 0;
+        while (start < current.size()) {
+            //分段按天划分，不同天的分段时间范围不重叠
+            LocalDate day = current.get(start).getDay();
+            long dayCount = 0;
+            int end = start;
+            while (end < current.size() && current.get(end).getDay().equals(day)) {
+                dayCount += current.get(end++).getCount();
+            }
+            if (skip < dayCount) {
+                break;
+            }
+            skip -= dayCount;
+            start = end;
+        }
+
+        List<OperateLog> rows = new ArrayList<>(limit);
+        try (MergeReader reader = new MergeReader(current.subList(start, current.size()), null)) {
+            OperateLog row;
+            while (rows.size() < limit && (row = reader.next()) != null) {
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 读取早于指定位置的归档日志
+     * @param time 上一页最后一条的时间，为null时从最新开始
+     * @param id 上一页最后一条的ID
+     */
+    public List<OperateLog> readAfter(LocalDateTime time, Integer id, int limit) {
+        List<OperateLog> rows = new ArrayList<>(limit);
+        try (MergeReader reader = new MergeReader(segments, time == null ? null : key(time, id))) {
+            OperateLog row;
+            while (rows.size() < limit && (row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private void publish(List<Segment> updated) {
+        updated.sort(Comparator.comparing((Segment s) -> key(s.getMaxTime(), s.getMaxId()), NEWEST_FIRST));
+        segments = List.copyOf(updated);
+    }
+
+    private static OperateLog key(LocalDateTime time, Integer id) {
+        OperateLog key = new OperateLog();
+        key.setOperateTime(time);
+        key.setId(id);
+        return key;
+    }
+
+    /*
+     * 分段索引
+     * */
+    @Data
+    public static class Segment {
+        private String file; //分段文件名
+        private LocalDate day; //日期
+        private LocalDateTime minTime; //最早一条的时间
+        private Integer minId; //最早一条的ID
+        private LocalDateTime maxTime; //最新一条的时间
+        private Integer maxId; //最新一条的ID
+        private long count; //条数
+    }
+
+    /*
+     * 单个分段的顺序读取，head为当前一条
+     * */
+    private class SegmentReader implements Closeable {
+        private final BufferedReader reader;
+        private OperateLog head;
+
+        private SegmentReader(Segment segment, OperateLog after) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(Paths.get(dir, segment.getFile()))), StandardCharsets.UTF_8));
+            //跳过不早于after的记录
+            advance();
+            while (after != null && head != null && NEWEST_FIRST.compare(head, after) <= 0) {
+                advance();
+            }
+        }
+
+        private boolean advance() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && line.isEmpty());
+            head = line == null ? null : objectMapper.readValue(line, OperateLog.class);
+            return head != null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /*
+     * 多个分段的倒序归并，分段在其最新一条可能成为下一条结果时才打开
+     * */
+    private class MergeReader implements Closeable {
+        private final Deque<Segment> pending = new ArrayDeque<>();
+        private final PriorityQueue<SegmentReader> heads = new PriorityQueue<>((a, b) -> NEWEST_FIRST.compare(a.head, b.head));
+        private final List<SegmentReader> opened = new ArrayList<>();
+        private final OperateLog after;
+
+        private MergeReader(List<Segment> segments, OperateLog after) {
+            this.after = after;
+            for (Segment segment : segments) {
+                //整个分段都不早于after时跳过
+                if (after == null || NEWEST_FIRST.compare(key(segment.getMinTime(), segment.getMinId()), after) > 0) {
+                    pending.add(segment);
+                }
+            }
+        }
+
+        private OperateLog next() {
+            try {
+                while (!pending.isEmpty() && (heads.isEmpty() || NEWEST_FIRST.compare(
+                        key(pending.peek().getMaxTime(), pending.peek().getMaxId()), heads.peek().head) <= 0)) {
+                    SegmentReader reader = new SegmentReader(pending.poll(), after);
+                    opened.add(reader);
+                    if (reader.head != null) {
+                        heads.add(reader);
+                    }
+                }
+                SegmentReader reader = heads.poll();
+                if (reader == null) {
+                    return null;
+                }
+                OperateLog row = reader.head;
+                if (reader.advance()) {
+                    heads.add(reader);
+                }
+                return row;
+            } catch (IOException e) {
+                throw new UncheckedIOException("读取操作日志归档失败", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            for (SegmentReader reader : opened) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    log.warn("关闭操作日志归档分段失败", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package org.example.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.example.mapper.OperateLogMapper;
+import org.example.pojo.OperateLog;
+import org.example.pojo.OperateLogQueryParam;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 最近操作日志的内存倒排索引
+ * 以环形列式数组保存最近capacity条日志的ID、时间、操作人、类名、方法名、耗时（不保存参数和返回值），
+ * 并按操作人、类名、方法名建立倒排表；由OperateLogWriter在批量写库后增量追加，归档从数据库删除后移除
+ * 比索引覆盖范围更早的日志由调用方查询数据库
+ */
+@Slf4j
+@Component
+public class OperateLogIndex {
+
+    //最多索引的日志条数
+    @Value("${tlias.operate-log.index.capacity:100000}")
+    private int capacity;
+
+    @Autowired
+    private OperateLogMapper operateLogMapper;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    //第seq条日志位于下标seq % capacity
+    private int[] ids;
+    private long[] times;
+    private int[] empIds;
+    private int[] classCodes;
+    private int[] methodCodes;
+    private long[] costs;
+    //已从数据库删除（归档）的日志，查询时跳过
+    private boolean[] removed;
+    //下一条日志的序号
+    private int nextSeq;
+
+    //类名、方法名字典
+    private final Map<String, Integer> classDict = new HashMap<>();
+    private final List<String> classNames = new ArrayList<>();
+    private final Map<String, Integer> methodDict = new HashMap<>();
+    //类名字典是否包含了数据库中出现过的全部类名
+    private boolean classNamesLoaded;
+
+    //倒排表：操作人/类名/方法名 -> 日志序号（升序）
+    private final Map<Integer, Postings> byEmp = new HashMap<>();
+    private final Map<Integer, Postings> byClass = new HashMap<>();
+    private final Map<Integer, Postings> byMethod = new HashMap<>();
+
+    //索引覆盖的最小ID，更小的ID需查询数据库；Integer.MAX_VALUE表示索引为空
+    private int coveredFromId = Integer.MAX_VALUE;
+    //未被索引覆盖的日志的最大时间，Long.MIN_VALUE表示没有更早的日志，Long.MAX_VALUE表示未知
+    private long olderMaxTime = Long.MAX_VALUE;
+
+    public OperateLogIndex() {
+    }
+
+    OperateLogIndex(int capacity) {
+        this.capacity = capacity;
+        allocate();
+    }
+
+    /*
+     * 启动时从数据库加载最近的日志
+     * */
+    @PostConstruct
+    public void init() {
+        allocate();
+        try {
+            //先加载全部类名，简单类名可以解析为全限定名后查询数据库
+            List<String> names = operateLogMapper.listClassNames();
+            lock.writeLock().lock();
+            try {
+                names.forEach(name -> code(classDict, name, classNames));
+                classNamesLoaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            List<OperateLog> recent = operateLogMapper.listRecent(capacity);
+            Collections.reverse(recent);
+            addAll(recent);
+            lock.writeLock().lock();
+            try {
+                if (recent.isEmpty()) {
+                    coveredFromId = 0;
+                    olderMaxTime = Long.MIN_VALUE;
+                } else {
+                    LocalDateTime older = operateLogMapper.selectMaxOperateTimeBefore(coveredFromId);
+                    olderMaxTime = older == null ? Long.MIN_VALUE : encode(older);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("操作日志索引预热完成，{}条", recent.size());
+        } catch (Exception e) {
+            log.warn("操作日志索引预热失败，将从新写入的日志开始建立索引", e);
+        }
+    }
+
+    private void allocate() {
+        ids = new int[capacity];
+        times = new long[capacity];
+        empIds = new int[capacity];
+        classCodes = new int[capacity];
+        methodCodes = new int[capacity];
+        costs = new long[capacity];
+        removed = new boolean[capacity];
+    }
+
+    /**
+     * 追加已写入数据库（已生成ID）的日志，须按ID升序
+     */
+    public void addAll(Collection<OperateLog> logs) {
+        lock.writeLock().lock();
+        try {
+            for (OperateLog operateLog : logs) {
+                add(operateLog);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除已从数据库删除的日志
+     */
+    public void removeAll(Collection<Integer> logIds) {
+        lock.writeLock().lock();
+        try {
+            for (Integer id : logIds) {
+                int slot = slotOf(id);
+                if (slot >= 0) {
+                    removed[slot] = true;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*
+     * 日志ID所在的下标，未被索引时返回-1；ID按序号递增，二分查找
+     * */
+    private int slotOf(int id) {
+        int low = oldestSeq();
+        int high = nextSeq - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = ids[mid % capacity];
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid % capacity;
+            }
+        }
+        return -1;
+    }
+
+    private void add(OperateLog operateLog) {
+        if (operateLog.getId() == null || operateLog.getOperateTime() == null) {
+            return;
+        }
+        int seq = nextSeq++;
+        int slot = seq % capacity;
+        if (seq >= capacity) {
+            //淘汰最旧的一条，该条及更早的日志改由数据库查询
+            olderMaxTime = olderMaxTime == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(olderMaxTime, times[slot]);
+            coveredFromId = ids[slot] + 1;
+        } else if (coveredFromId == Integer.MAX_VALUE) {
+            coveredFromId = operateLog.getId();
+        }
+
+        ids[slot] = operateLog.getId();
+        times[slot] = encode(operateLog.getOperateTime());
+        empIds[slot] = operateLog.getOperateEmpId() == null ? -1 : operateLog.getOperateEmpId();
+        classCodes[slot] = code(classDict, operateLog.getClassName(), classNames);
+        methodCodes[slot] = code(methodDict, operateLog.getMethodName(), null);
+        costs[slot] = operateLog.getCostTime() == null ? 0 : operateLog.getCostTime();
+        removed[slot] = false;
+
+        int oldest = oldestSeq();
+        byEmp.computeIfAbsent(empIds[slot], k -> new Postings()).add(seq, oldest);
+        byClass.computeIfAbsent(classCodes[slot], k -> new Postings()).add(seq, oldest);
+        byMethod.computeIfAbsent(methodCodes[slot], k -> new Postings()).add(seq, oldest);
+
+        //每轮淘汰一遍，清理不再追加的倒排表中过期的序号
+        if (seq > 0 && seq % capacity == 0) {
+            sweep(byEmp, oldest);
+            sweep(byClass, oldest);
+            sweep(byMethod, oldest);
+        }
+    }
+
+    /**
+     * 在索引中查询，结果按ID倒序
+     * @param offset 跳过的条数
+     * @param limit 最多返回的ID个数
+     */
+    public Hits search(OperateLogQueryParam param, long offset, int limit) {
+        long from = param.getBegin() == null ? Long.MIN_VALUE : encode(param.getBegin().atStartOfDay());
+        long to = param.getEnd() == null ? Long.MAX_VALUE : encode(param.getEnd().plusDays(1).atStartOfDay());
+        long minCost = param.getMinCostTime() == null ? Long.MIN_VALUE : param.getMinCostTime();
+
+        lock.readLock().lock();
+        try {
+            //较早的日志可能满足条件时，调用方需要再查询数据库
+            boolean olderMayMatch = olderMaxTime != Long.MIN_VALUE && from <= olderMaxTime;
+            List<Integer> hitIds = new ArrayList<>(limit);
+
+            //解析过滤条件，字典中不存在的类名/方法名在索引中不会有结果
+            Set<Integer> classFilter = null;
+            if (param.getClassName() != null && !param.getClassName().isEmpty()) {
+                classFilter = resolveClass(param.getClassName());
+            }
+            Integer methodFilter = null;
+            if (param.getMethodName() != null && !param.getMethodName().isEmpty()) {
+                methodFilter = methodDict.getOrDefault(param.getMethodName(), -1);
+            }
+            Integer empFilter = param.getOperateEmpId();
+            if (classFilter != null && classFilter.isEmpty()) {
+                return new Hits(0, hitIds, coveredFromId, olderMayMatch);
+            }
+
+            //选择最短的倒排表作为候选集，没有等值条件时扫描全部
+            Postings candidates = null;
+            if (empFilter != null) {
+                candidates = shorter(candidates, byEmp.getOrDefault(empFilter, Postings.EMPTY));
+            }
+            if (classFilter != null && classFilter.size() == 1) {
+                candidates = shorter(candidates, byClass.getOrDefault(classFilter.iterator().next(), Postings.EMPTY));
+            }
+            if (methodFilter != null) {
+                candidates = shorter(candidates, byMethod.getOrDefault(methodFilter, Postings.EMPTY));
+            }
+
+            int oldest = oldestSeq();
+            long total = 0;
+            int i = candidates == null ? nextSeq - 1 : candidates.tail - 1;
+            int end = candidates == null ? oldest : candidates.head;
+            for (; i >= end; i--) {
+                int seq = candidates == null ? i : candidates.data[i];
+                if (seq < oldest) {
+                    break;
+                }
+                int slot = seq % capacity;
+                if (removed[slot]
+                        || (empFilter != null && empIds[slot] != empFilter)
+                        || (classFilter != null && !classFilter.contains(classCodes[slot]))
+                        || (methodFilter != null && methodCodes[slot] != methodFilter)
+                        || times[slot] < from || times[slot] >= to || costs[slot] < minCost) {
+                    continue;
+                }
+                if (total >= offset && hitIds.size() < limit) {
+                    hitIds.add(ids[slot]);
+                }
+                total++;
+            }
+            return new Hits(total, hitIds, coveredFromId, olderMayMatch);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 把类名条件解析为全限定名，供查询数据库时等值匹配
+     * @return 匹配的全限定名；类名字典未加载时返回null，由调用方按后缀模糊查询
+     */
+    public List<String> resolveClassNames(String className) {
+        lock.readLock().lock();
+        try {
+            if (!classNamesLoaded) {
+                return null;
+            }
+            List<String> names = new ArrayList<>();
+            for (int code : resolveClass(className)) {
+                names.add(classNames.get(code));
+            }
+            return names;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+     * 类名条件可以是全限定名或简单类名
+     * */
+    private Set<Integer> resolveClass(String className) {
+        Set<Integer> codes = new HashSet<>();
+        String suffix = "." + className;
+        for (int code = 0; code < classNames.size(); code++) {
+            String name = classNames.get(code);
+            if (name.equals(className) || (className.indexOf('.') < 0 && name.endsWith(suffix))) {
+                codes.add(code);
+            }
+        }
+        return codes;
+    }
+
+    private int oldestSeq() {
+        return Math.max(0, nextSeq - capacity);
+    }
+
+    private static Postings shorter(Postings current, Postings candidate) {
+        return current == null || candidate.size() < current.size() ? candidate : current;
+    }
+
+    private static int code(Map<String, Integer> dict, String value, List<String> names) {
+        if (value == null) {
+            return -1;
+        }
+        return dict.computeIfAbsent(value, k -> {
+            if (names != null) {
+                names.add(k);
+            }
+            return dict.size();
+        });
+    }
+
+    private static void sweep(Map<Integer, Postings> postings, int oldest) {
+        postings.values().removeIf(p -> {
+            p.trim(oldest);
+            return p.size() == 0;
+        });
+    }
+
+    private static long encode(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /*
+     * 索引查询结果
+     * */
+    @Getter
+    @AllArgsConstructor
+    public static class Hits {
+        private final long total; //索引中满足条件的总条数
+        private final List<Integer> ids; //当前页的日志ID，倒序
+        private final int coveredFromId; //索引覆盖的最小ID
+        private final boolean olderMayMatch; //更早的日志是否可能满足条件
+    }
+
+    /*
+     * 升序的日志序号队列，头部的过期序号在追加时清理
+     * */
+    private static class Postings {
+        private static final Postings EMPTY = new Postings();
+
+        private int[] data = new int[4];
+        private int head;
+        private int tail;
+
+        private void add(int seq, int oldest) {
+            trim(oldest);
+            if (tail == data.length) {
+                if (head > data.length / 2) {
+                    System.arraycopy(data, head, data, 0, tail - head);
+                    tail -= head;
+                    head = 0;
+                } else {
+                    data = Arrays.copyOf(data, data.length * 2);
+                }
+            }
+            data[tail++] = seq;
+        }
+
+        private void trim(int oldest) {
+            while (head < tail && data[head] < oldest) {
+                head++;
+            }
+        }
+
+        private int size() {
+            return tail - head;
+        }
+    }
+}
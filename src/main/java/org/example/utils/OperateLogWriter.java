@@ -0,0 +1,34 @@
+package org.example.utils;
+
+import org.example.mapper.OperateLogMapper;
+import org.example.pojo.OperateLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 操作日志异步批量写入器
+ * 由OperateLogAspect提交，后台线程以多行insert批量写入operate_log，写入后追加到OperateLogIndex
+ */
+@Component
+@ConfigurationProperties("tlias.operate-log.writer")
+public class OperateLogWriter extends AsyncBatchWriter<OperateLog> {
+
+    @Autowired
+    private OperateLogMapper operateLogMapper;
+    @Autowired
+    private OperateLogIndex operateLogIndex;
+
+    public OperateLogWriter() {
+        super("operate_log", OperateLog.class);
+    }
+
+    @Override
+    protected void writeBatch(List<OperateLog> batch) {
+        operateLogMapper.insertBatch(batch);
+        //写库后已生成ID，追加到日志索引
+        operateLogIndex.addAll(batch);
+    }
+}
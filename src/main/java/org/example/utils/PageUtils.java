@@ -0,0 +1,39 @@
+package org.example.utils;
+
+import org.example.exception.BadRequestException;
+
+/**
+ * 分页参数校验
+ * 页码、每页记录数未传时使用默认值，小于1时返回400，每页记录数超过上限时按上限查询
+ */
+public class PageUtils {
+
+    public static final int DEFAULT_PAGE_SIZE = 10;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * 校验页码
+     */
+    public static int page(Integer page) {
+        if (page == null) {
+            return 1;
+        }
+        if (page < 1) {
+            throw new BadRequestException("页码必须大于0");
+        }
+        return page;
+    }
+
+    /**
+     * 校验每页记录数，超过上限时按上限处理
+     */
+    public static int pageSize(Integer pageSize) {
+        if (pageSize == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (pageSize < 1) {
+            throw new BadRequestException("每页记录数必须大于0");
+        }
+        return Math.min(pageSize, MAX_PAGE_SIZE);
+    }
+}
@@ -0,0 +1,220 @@
+package org.example.utils;
+
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.example.anno.Permission;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * 权限注册表
+ * 启动时扫描所有Controller上的@Permission标识，为每个权限分配一个位，并预先计算每个职位的权限掩码
+ * 权限校验只需一次按位与运算
+ */
+@Slf4j
+@Component
+public class PermissionRegistry implements SmartInitializingSingleton {
+
+    //令牌中的职位、权限掩码、权限版本
+    public static final String CLAIM_JOB = "job";
+    public static final String CLAIM_MASK = "pm";
+    public static final String CLAIM_VERSION = "pv";
+
+    //默认职位（普通用户），职位表中不存在的职位按此处理
+    private static final int DEFAULT_JOB = 0;
+
+    // 所有角色都具有基本的查看权限
+    private static final List<String> BASE_PERMISSIONS = List.of("student.view", "student.list", "report.view", "log.view");
+
+    /*
+     * 职位 -> 权限表, 1:班主任,2:讲师,3:学工主管,4:教研主管,5:咨询师
+     * */
+    private static final Map<Integer, List<String>> JOB_PERMISSIONS = new LinkedHashMap<>();
+
+    static {
+        JOB_PERMISSIONS.put(DEFAULT_JOB, BASE_PERMISSIONS);
+        // 班主任具有基本权限加上编辑和创建学生信息的权限
+        JOB_PERMISSIONS.put(1, List.of("student.view", "student.edit", "student.list", "student.create",
+                "report.view", "log.view"));
+        // 讲师具有基本权限
+        JOB_PERMISSIONS.put(2, BASE_PERMISSIONS);
+        // 学工主管具有所有权限
+        JOB_PERMISSIONS.put(3, List.of("emp.view", "emp.edit", "emp.list", "emp.create", "emp.delete",
+                "student.view", "student.edit", "student.list", "student.create", "student.delete",
+                "dept.view", "dept.list", "dept.create", "dept.edit", "dept.delete",
+                "report.view", "report.edit", "log.view", "clazz.create", "clazz.edit", "clazz.view", "clazz.list", "clazz.delete"));
+        // 教研主管具有基本权限加上课程管理权限
+        JOB_PERMISSIONS.put(4, List.of("course.view", "course.edit", "report.view", "log.view"));
+        // 咨询师具有基本权限加上编辑和创建学生信息的权限
+        JOB_PERMISSIONS.put(5, List.of("student.view", "student.edit", "student.list", "student.create",
+                "report.view", "log.view"));
+    }
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    //是否在登录令牌中携带职位及权限掩码
+    @Value("${tlias.permission.token-claims:false}")
+    private boolean tokenClaims;
+
+    //权限标识 -> 位
+    private Map<String, Long> permissionBits = Collections.emptyMap();
+    //职位 -> 权限掩码
+    private Map<Integer, Long> jobMasks = Collections.emptyMap();
+    //职位 -> 权限集合（供前端查询当前用户权限）
+    private Map<Integer, Set<String>> jobPermissionSets = Collections.emptyMap();
+    //权限版本，权限位分配或职位权限表变化时随之变化
+    private long version;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        //1.扫描所有Controller方法上的权限标识
+        Set<String> declared = new TreeSet<>();
+        for (Object controller : applicationContext.getBeansWithAnnotation(RestController.class).values()) {
+            Class<?> clazz = ClassUtils.getUserClass(AopUtils.getTargetClass(controller));
+            for (Method method : clazz.getDeclaredMethods()) {
+                Permission permission = AnnotationUtils.findAnnotation(method, Permission.class);
+                if (permission != null) {
+                    declared.addAll(Arrays.asList(permission.value()));
+                }
+            }
+        }
+
+        //2.为接口上声明的权限及职位表中的权限分配ID
+        Set<String> granted = new TreeSet<>();
+        JOB_PERMISSIONS.values().forEach(granted::addAll);
+        Set<String> all = new TreeSet<>(declared);
+        all.addAll(granted);
+        if (all.size() > Long.SIZE) {
+            throw new IllegalStateException("权限数量超过" + Long.SIZE + "个，无法使用long掩码表示: " + all.size());
+        }
+        Map<String, Long> bits = new HashMap<>();
+        int id = 0;
+        for (String p : all) {
+            bits.put(p, 1L << id++);
+        }
+
+        //3.预先计算每个职位的权限掩码
+        Map<Integer, Long> masks = new HashMap<>();
+        Map<Integer, Set<String>> sets = new HashMap<>();
+        JOB_PERMISSIONS.forEach((job, permissions) -> {
+            long mask = 0L;
+            for (String p : permissions) {
+                mask |= bits.get(p);
+            }
+            masks.put(job, mask);
+            sets.put(job, Set.copyOf(permissions));
+        });
+
+        //权限版本：对权限位分配和职位掩码做CRC32
+        CRC32 crc = new CRC32();
+        StringBuilder canonical = new StringBuilder();
+        all.forEach(p -> canonical.append(p).append(','));
+        new TreeMap<>(masks).forEach((job, mask) -> canonical.append(job).append('=').append(mask).append(';'));
+        crc.update(canonical.toString().getBytes(StandardCharsets.UTF_8));
+
+        this.permissionBits = bits;
+        this.jobMasks = masks;
+        this.jobPermissionSets = sets;
+        this.version = crc.getValue();
+
+        //4.报告没有任何职位拥有的接口权限，以及没有任何接口使用的职位权限
+        Set<String> unreachable = new TreeSet<>(declared);
+        unreachable.removeAll(granted);
+        if (!unreachable.isEmpty()) {
+            log.warn("以下接口权限没有分配给任何职位，相关接口将无法访问: {}", unreachable);
+        }
+        Set<String> unused = new TreeSet<>(granted);
+        unused.removeAll(declared);
+        if (!unused.isEmpty()) {
+            log.info("以下职位权限没有被任何接口使用: {}", unused);
+        }
+        log.info("权限注册完成，共{}个权限，{}个职位，权限版本{}", all.size(), masks.size(), version);
+    }
+
+    /**
+     * 获取权限标识对应的位，未注册的权限返回0
+     */
+    public long bitOf(String permission) {
+        Long bit = permissionBits.get(permission);
+        return bit == null ? 0L : bit;
+    }
+
+    /**
+     * 获取职位的权限掩码
+     */
+    public long maskOf(Integer job) {
+        Long mask = jobMasks.get(job);
+        return mask != null ? mask : jobMasks.getOrDefault(DEFAULT_JOB, 0L);
+    }
+
+    /**
+     * 获取职位的权限集合
+     */
+    public Set<String> permissionsOf(Integer job) {
+        Set<String> permissions = jobPermissionSets.get(job);
+        return permissions != null ? permissions : jobPermissionSets.getOrDefault(DEFAULT_JOB, Collections.emptySet());
+    }
+
+    /**
+     * 判断权限掩码是否包含指定权限
+     */
+    public boolean hasPermission(long mask, String permission) {
+        long bit = bitOf(permission);
+        return bit != 0 && (mask & bit) != 0;
+    }
+
+    /**
+     * 生成登录令牌中的权限声明：职位、权限掩码及权限版本
+     */
+    public Map<String, Object> claimsOf(Integer job) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_JOB, job);
+        claims.put(CLAIM_MASK, maskOf(job));
+        claims.put(CLAIM_VERSION, version);
+        return claims;
+    }
+
+    /**
+     * 令牌是否携带了可直接使用的权限掩码
+     * 未开启令牌权限模式时忽略令牌中的掩码，仍按员工职位校验
+     */
+    public boolean hasMaskClaim(Claims claims) {
+        return tokenClaims && claims != null && claims.get(CLAIM_MASK) instanceof Number;
+    }
+
+    /**
+     * 从令牌中读取权限掩码
+     */
+    public long maskOf(Claims claims) {
+        return ((Number) claims.get(CLAIM_MASK)).longValue();
+    }
+
+    /**
+     * 令牌携带的权限版本与当前权限表不一致（权限表变更前签发的令牌）
+     */
+    public boolean isStale(Claims claims) {
+        Object claimVersion = claims.get(CLAIM_VERSION);
+        return claimVersion instanceof Number && ((Number) claimVersion).longValue() != version;
+    }
+
+    public boolean isTokenClaims() {
+        return tokenClaims;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,248 @@
+package org.example.utils;
+
+import com.github.stuxuhai.jpinyin.PinyinFormat;
+import com.github.stuxuhai.jpinyin.PinyinHelper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 名称拼音前缀树
+ * 每个名称以全拼(zhangsan)、首字母(zs)和原文(张三)三种形式插入，多音字展开为多种读音；
+ * 查询时定位到前缀节点后按层遍历，键越短的名称越靠前，取够limit个即停止
+ * 全量加载完成前查询结果为空
+ */
+public class PinyinTrie {
+
+    //多音字组合展开的上限，避免生僻姓名产生过多的键
+    private static final int MAX_READINGS = 16;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root = new Node();
+    //ID -> 插入的键，更新和删除时据此移除
+    private Map<Integer, Set<String>> keysById = new HashMap<>();
+    private Map<Integer, String> names = new HashMap<>();
+    private boolean ready;
+    //加载期间发生变更的ID，加载完成后需重新查询
+    private final Set<Integer> pending = new LinkedHashSet<>();
+
+    /**
+     * 全量加载，替换当前内容
+     * @return 加载期间发生变更的ID
+     */
+    public List<Integer> load(Map<Integer, String> all) {
+        Node loadedRoot = new Node();
+        Map<Integer, Set<String>> loadedKeys = new HashMap<>(all.size() * 2);
+        Map<Integer, String> loadedNames = new HashMap<>(all.size() * 2);
+        all.forEach((id, name) -> insert(loadedRoot, loadedKeys, loadedNames, id, name));
+
+        lock.writeLock().lock();
+        try {
+            root = loadedRoot;
+            keysById = loadedKeys;
+            names = loadedNames;
+            ready = true;
+            List<Integer> changed = new ArrayList<>(pending);
+            pending.clear();
+            return changed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 应用变更：current中有的ID更新名称，没有的删除
+     * 加载完成前只记录ID
+     */
+    public void apply(Collection<Integer> ids, Map<Integer, String> current) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                pending.addAll(ids);
+                return;
+            }
+            for (Integer id : ids) {
+                remove(id);
+                insert(root, keysById, names, id, current.get(id));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查询前缀匹配的名称
+     * @return 按匹配的键长度升序，最多limit个
+     */
+    public List<Match> search(String prefix, int limit) {
+        String key = prefix.toLowerCase();
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+            }
+            if (node == null) {
+                return Collections.emptyList();
+            }
+
+            Set<Integer> found = new LinkedHashSet<>();
+            ArrayDeque<Node> queue = new ArrayDeque<>();
+            queue.add(node);
+            while (!queue.isEmpty() && found.size() < limit) {
+                Node current = queue.poll();
+                for (Integer id : current.ids) {
+                    found.add(id);
+                    if (found.size() >= limit) {
+                        break;
+                    }
+                }
+                queue.addAll(current.children.values());
+            }
+
+            List<Match> matches = new ArrayList<>(found.size());
+            for (Integer id : found) {
+                matches.add(new Match(id, names.get(id)));
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 清空，等待重新全量加载
+     */
+    public void reset() {
+        lock.writeLock().lock();
+        try {
+            root = new Node();
+            keysById = new HashMap<>();
+            names = new HashMap<>();
+            ready = false;
+            pending.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Integer id) {
+        Set<String> keys = keysById.remove(id);
+        names.remove(id);
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            //记录路径，移除ID后自底向上清理空节点
+            Node[] path = new Node[key.length() + 1];
+            path[0] = root;
+            int depth = 0;
+            while (depth < key.length() && path[depth] != null) {
+                path[depth + 1] = path[depth].children.get(key.charAt(depth));
+                depth++;
+            }
+            if (path[key.length()] == null) {
+                continue;
+            }
+            path[key.length()].ids.remove(id);
+            for (int i = key.length(); i > 0; i--) {
+                Node node = path[i];
+                if (!node.ids.isEmpty() || !node.children.isEmpty()) {
+                    break;
+                }
+                path[i - 1].children.remove(key.charAt(i - 1));
+            }
+        }
+    }
+
+    private static void insert(Node root, Map<Integer, Set<String>> keysById, Map<Integer, String> names,
+                               Integer id, String name) {
+        if (name == null || name.isEmpty()) {
+            return;
+        }
+        Set<String> keys = keys(name);
+        for (String key : keys) {
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), k -> new Node());
+            }
+            node.ids.add(id);
+        }
+        keysById.put(id, keys);
+        names.put(id, name);
+    }
+
+    /*
+     * 名称的全拼、首字母及原文，非汉字按原样（小写）保留
+     * */
+    static Set<String> keys(String name) {
+        String lower = name.toLowerCase();
+        List<StringBuilder> fulls = new ArrayList<>();
+        List<StringBuilder> initials = new ArrayList<>();
+        fulls.add(new StringBuilder());
+        initials.add(new StringBuilder());
+        for (char c : lower.toCharArray()) {
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            String[] readings = PinyinHelper.convertToPinyinArray(c, PinyinFormat.WITHOUT_TONE);
+            if (readings.length == 0) {
+                readings = new String[]{String.valueOf(c)};
+            }
+            //多音字展开，超过上限后只取第一个读音
+            int variants = fulls.size() * readings.length <= MAX_READINGS ? readings.length : 1;
+            List<StringBuilder> nextFulls = new ArrayList<>();
+            List<StringBuilder> nextInitials = new ArrayList<>();
+            for (int r = 0; r < variants; r++) {
+                for (int i = 0; i < fulls.size(); i++) {
+                    nextFulls.add(new StringBuilder(fulls.get(i)).append(readings[r]));
+                    nextInitials.add(new StringBuilder(initials.get(i)).append(readings[r].charAt(0)));
+                }
+            }
+            fulls = nextFulls;
+            initials = nextInitials;
+        }
+
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(lower);
+        fulls.forEach(sb -> keys.add(sb.toString()));
+        initials.forEach(sb -> keys.add(sb.toString()));
+        keys.remove("");
+        return keys;
+    }
+
+    /*
+     * 查询结果
+     * */
+    @Getter
+    @AllArgsConstructor
+    public static class Match {
+        private final Integer id;
+        private final String name;
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        //以该节点结尾的键对应的ID
+        private final Set<Integer> ids = new LinkedHashSet<>(2);
+    }
+}
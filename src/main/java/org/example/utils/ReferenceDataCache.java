@@ -0,0 +1,200 @@
+package org.example.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import org.example.event.DataChangeEvent;
+import org.example.mapper.ClazzMapper;
+import org.example.mapper.DeptMapper;
+import org.example.pojo.Clazz;
+import org.example.pojo.Dept;
+import org.example.pojo.Result;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 部门、班级下拉列表的进程内缓存
+ * 每张表一个版本号，部门、班级的新增、修改、删除提交后加一；缓存的列表连同序列化好的响应体一起保存，
+ * ETag由版本号生成，客户端带If-None-Match且版本未变时直接返回304，不查询数据库也不序列化
+ * 到期后重新查询一次，兜底绕过应用直接修改数据库的情况；内容未变时版本不变，客户端缓存仍然有效
+ */
+@Component
+public class ReferenceDataCache {
+
+    //是否启用缓存，关闭时每次查询数据库且不返回ETag
+    @Value("${tlias.reference-cache.enabled:true}")
+    private boolean enabled;
+    //缓存有效期，到期后重新查询数据库
+    @Value("${tlias.reference-cache.ttl:10m}")
+    private Duration ttl;
+
+    @Autowired
+    private DeptMapper deptMapper;
+    @Autowired
+    private ClazzMapper clazzMapper;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    //本次启动的标识，重启后版本号从0开始，ETag不与重启前的重复
+    private final String instance = Long.toString(System.currentTimeMillis(), 36);
+    private final Entry<Dept> depts = new Entry<>("dept", () -> deptMapper.findAll());
+    private final Entry<Clazz> clazzs = new Entry<>("clazz", () -> clazzMapper.clazzList());
+
+    /**
+     * 全部部门
+     */
+    public Snapshot<Dept> depts() {
+        return get(depts);
+    }
+
+    /**
+     * 全部班级
+     */
+    public Snapshot<Clazz> clazzs() {
+        return get(clazzs);
+    }
+
+    /*
+     * 事务提交后版本加一，下次读取时重新加载；排在报表缓存失效之前，报表重新计算时读到的是新的班级
+     * */
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDataChange(DataChangeEvent event) {
+        switch (event.getTable()) {
+            case DataChangeEvent.DEPT:
+                depts.version.incrementAndGet();
+                break;
+            case DataChangeEvent.CLAZZ:
+                clazzs.version.incrementAndGet();
+                break;
+            default:
+        }
+    }
+
+    /**
+     * 生成响应：If-None-Match与当前ETag一致时返回304，否则返回序列化好的响应体
+     */
+    public static ResponseEntity<byte[]> toResponse(Snapshot<?> snapshot, String ifNoneMatch) {
+        if (snapshot.etag == null) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(snapshot.body);
+        }
+        //每次都向服务端确认，数据变更后立即可见
+        if (matches(ifNoneMatch, snapshot.etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.etag).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok().eTag(snapshot.etag).cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON).body(snapshot.body);
+    }
+
+    private <T> Snapshot<T> get(Entry<T> entry) {
+        if (!enabled) {
+            List<T> value = entry.loader.get();
+            return new Snapshot<>(-1, null, value, serialize(value), 0);
+        }
+        Snapshot<T> snapshot = entry.snapshot;
+        if (snapshot != null && snapshot.version == entry.version.get() && !expired(snapshot)) {
+            return snapshot;
+        }
+        synchronized (entry) {
+            Snapshot<T> previous = entry.snapshot;
+            long version = entry.version.get();
+            if (previous != null && previous.version == version && !expired(previous)) {
+                return previous;
+            }
+            //先取版本再查询，查询期间有写入时版本已变，下次读取重新加载
+            List<T> value = Collections.unmodifiableList(entry.loader.get());
+            byte[] body = serialize(value);
+            if (previous != null && previous.version == version && !Arrays.equals(previous.body, body)) {
+                //到期重新查询发现内容有变化，换一个版本；并发写入已加过一时不再加
+                if (entry.version.compareAndSet(version, version + 1)) {
+                    version++;
+                }
+            }
+            snapshot = new Snapshot<>(version, etag(entry.name, version), value, body, System.nanoTime());
+            entry.snapshot = snapshot;
+            return snapshot;
+        }
+    }
+
+    private boolean expired(Snapshot<?> snapshot) {
+        return System.nanoTime() - snapshot.loadedAt >= ttl.toNanos();
+    }
+
+    private String etag(String name, long version) {
+        return "\"" + name + "-" + instance + "-" + version + "\"";
+    }
+
+    private byte[] serialize(List<?> value) {
+        try {
+            return objectMapper.writeValueAsBytes(Result.success(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /*
+     * If-None-Match可能包含多个ETag（逗号分隔）、弱ETag前缀W/或*
+     * */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * 缓存的列表及其版本、ETag、序列化好的响应体（完整的Result）
+     * */
+    @Getter
+    public static class Snapshot<T> {
+        private final long version;
+        private final String etag;
+        //不可修改
+        private final List<T> value;
+        private final byte[] body;
+        private final long loadedAt;
+
+        private Snapshot(long version, String etag, List<T> value, byte[] body, long loadedAt) {
+            this.version = version;
+            this.etag = etag;
+            this.value = value;
+            this.body = body;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private static class Entry<T> {
+        private final String name;
+        private final Supplier<List<T>> loader;
+        private final AtomicLong version = new AtomicLong();
+        private volatile Snapshot<T> snapshot;
+
+        private Entry(String name, Supplier<List<T>> loader) {
+            this.name = name;
+            this.loader = loader;
+        }
+    }
+}
@@ -0,0 +1,505 @@
+package org.example.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.example.event.DataChangeEvent;
+import org.example.mapper.EmpMapper;
+import org.example.mapper.StudentMapper;
+import org.example.pojo.Clazz;
+import org.example.pojo.ClazzOption;
+import org.example.pojo.Emp;
+import org.example.pojo.JobOption;
+import org.example.pojo.Student;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 统计报表的内存聚合
+ * 员工按职位、性别计数，学员按学历、班级计数（班级人数同时用于删除班级前的检查）；每条记录的取值按ID保存，变更时先减旧值再加新值
+ * 启动后在后台全量加载（失败时定时重试），之后由DataChangeEvent增量维护，并定期与SQL统计结果核对，不一致时重新加载
+ * 报表结果在计数变化后的第一次读取时生成，之后直接返回同一对象；未就绪时返回null，由调用方回退到SQL统计
+ */
+@Slf4j
+@Component
+public class ReportAggregates {
+
+    //取值为null时的计数键
+    static final int NULL_KEY = Integer.MIN_VALUE + 1;
+    //员工的统计维度
+    private static final int EMP_JOB = 0;
+    private static final int EMP_GENDER = 1;
+    //学员的统计维度
+    private static final int STUDENT_DEGREE = 0;
+    private static final int STUDENT_CLAZZ = 1;
+    //职位、学历名称，下标为编码，与原SQL中的case一致
+    private static final String[] JOBS = {null, "班主任", "讲师", "学工主管", "教研主管", "咨询师"};
+    private static final String[] DEGREES = {null, "初中", "高中", "大专", "本科", "硕士", "博士"};
+
+    //是否启用内存聚合
+    @Value("${tlias.report-aggregates.enabled:true}")
+    private boolean enabled;
+
+    @Autowired
+    private EmpMapper empMapper;
+    @Autowired
+    private StudentMapper studentMapper;
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    private final Aggregate emp = new Aggregate(2);
+    private final Aggregate student = new Aggregate(2);
+
+    private volatile Cached<JobOption> empJob = Cached.empty();
+    private volatile Cached<List<Map<String, Object>>> empGender = Cached.empty();
+    private volatile Cached<List<Map<String, Object>>> studentDegree = Cached.empty();
+
+    /**
+     * 员工职位人数，按人数升序
+     * @return 未就绪时返回null
+     */
+    public JobOption empJobData() {
+        Cached<JobOption> cached = empJob;
+        long version = emp.version();
+        if (cached.version != version) {
+            cached = version < 0 ? Cached.empty() : new Cached<>(version, buildEmpJob());
+            empJob = cached;
+        }
+        return cached.value;
+    }
+
+    /**
+     * 员工性别人数，与原SQL一致：性别为1的是男性员工，其余都计为女性员工
+     * @return 未就绪时返回null
+     */
+    public List<Map<String, Object>> empGenderData() {
+        Cached<List<Map<String, Object>>> cached = empGender;
+        long version = emp.version();
+        if (cached.version != version) {
+            cached = version < 0 ? Cached.empty() : new Cached<>(version, buildEmpGender());
+            empGender = cached;
+        }
+        return cached.value;
+    }
+
+    /**
+     * 学员学历人数，按人数升序
+     * @return 未就绪时返回null
+     */
+    public List<Map<String, Object>> studentDegreeData() {
+        Cached<List<Map<String, Object>>> cached = studentDegree;
+        long version = student.version();
+        if (cached.version != version) {
+            cached = version < 0 ? Cached.empty() : new Cached<>(version, buildStudentDegree());
+            studentDegree = cached;
+        }
+        return cached.value;
+    }
+
+    /**
+     * 班级人数
+     * @return 未就绪时返回-1
+     */
+    public int clazzHeadcount(int clazzId) {
+        return student.count(STUDENT_CLAZZ, clazzId);
+    }
+
+    /**
+     * 各班级人数，班级按修改时间倒序，没有学员的班级不列出，未分班的学员计入名称为null的一项（排在最后）
+     * @param clazzes 所有班级
+     * @return 未就绪时返回null
+     */
+    public ClazzOption clazzCountData(List<Clazz> clazzes) {
+        IntIntMap counts = student.snapshot(STUDENT_CLAZZ);
+        if (counts == null) {
+            return null;
+        }
+        List<Clazz> sorted = new ArrayList<>(clazzes);
+        sorted.sort(Comparator.comparing(Clazz::getUpdateTime, Comparator.nullsLast(Comparator.reverseOrder())));
+        List<Object> clazzList = new ArrayList<>(sorted.size() + 1);
+        List<Object> dataList = new ArrayList<>(sorted.size() + 1);
+        int assigned = 0;
+        for (Clazz clazz : sorted) {
+            int count = counts.get(clazz.getId(), 0);
+            if (count > 0) {
+                clazzList.add(clazz.getName());
+                dataList.add((long) count);
+                assigned += count;
+            }
+        }
+        //班级已删除或未分班的学员
+        int[] total = new int[1];
+        counts.forEach((key, count) -> total[0] += count);
+        if (total[0] > assigned) {
+            clazzList.add(null);
+            dataList.add((long) (total[0] - assigned));
+        }
+        return new ClazzOption(clazzList, dataList);
+    }
+
+    /*
+     * 全量加载尚未就绪的聚合，启动后立即执行，数据库不可用时定时重试
+     * */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${tlias.report-aggregates.retry-interval:60000}")
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        if (!emp.isReady()) {
+            loadEmp();
+        }
+        if (!student.isReady()) {
+            loadStudent();
+        }
+    }
+
+    /*
+     * 定期与SQL统计结果核对，不一致时记录日志并重新加载，重新加载期间视为未就绪，读取方回退到SQL统计
+     * */
+    @Scheduled(initialDelayString = "${tlias.report-aggregates.reconcile-interval:600000}",
+            fixedDelayString = "${tlias.report-aggregates.reconcile-interval:600000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (emp.isReady() && (!emp.matches(EMP_JOB, empMapper.countByJob())
+                    || !emp.matches(EMP_GENDER, empMapper.countByGender()))) {
+                log.warn("员工统计聚合与数据库不一致，重新加载");
+                emp.reset();
+                loadEmp();
+            }
+            if (student.isReady() && (!student.matches(STUDENT_DEGREE, studentMapper.countByDegree())
+                    || !student.matches(STUDENT_CLAZZ, studentMapper.countByClazz()))) {
+                log.warn("学员统计聚合与数据库不一致，重新加载");
+                student.reset();
+                loadStudent();
+            }
+        } catch (Exception e) {
+            log.warn("统计聚合核对失败：{}", e.getMessage());
+        }
+    }
+
+    /*
+     * 事务提交后按ID重新查询，不在事务中发布的事件立即处理
+     * 先于报表缓存的失效执行，缓存失效后重新读取到的是已更新的计数
+     * */
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDataChange(DataChangeEvent event) {
+        if (!enabled || event.getIds() == null || event.getIds().isEmpty()) {
+            return;
+        }
+        try {
+            switch (event.getTable()) {
+                case DataChangeEvent.EMP:
+                    reload(emp, event.getIds(), empMapper::selectByIds, Emp::getId, ReportAggregates::empKeys);
+                    break;
+                case DataChangeEvent.STUDENT:
+                    reload(student, event.getIds(), studentMapper::selectByIds, Student::getId, ReportAggregates::studentKeys);
+                    break;
+                default:
+            }
+        } catch (Exception e) {
+            //增量更新失败时清空，由定时任务重新加载，期间回退到SQL统计
+            log.error("统计聚合更新失败，重新加载：{}", event, e);
+            (DataChangeEvent.EMP.equals(event.getTable()) ? emp : student).reset();
+        }
+    }
+
+    private void loadEmp() {
+        load(emp, "员工", session -> session.getMapper(EmpMapper.class).cursorReportKeys(), Emp::getId,
+                ReportAggregates::empKeys, empMapper::selectByIds);
+    }
+
+    private void loadStudent() {
+        load(student, "学员", session -> session.getMapper(StudentMapper.class).cursorReportKeys(), Student::getId,
+                ReportAggregates::studentKeys, studentMapper::selectByIds);
+    }
+
+    /*
+     * 流式读取全表的统计字段，加载期间发生的变更在加载完成后重新查询
+     * */
+    private <T> void load(Aggregate aggregate, String name, Function<SqlSession, Cursor<T>> query,
+                          Function<T, Integer> id, Function<T, int[]> keys, Function<List<Integer>, List<T>> byIds) {
+        aggregate.beginLoad();
+        try {
+            IntIntMap[] byId = new IntIntMap[aggregate.dimensions];
+            IntIntMap[] counts = new IntIntMap[aggregate.dimensions];
+            for (int d = 0; d < aggregate.dimensions; d++) {
+                byId[d] = new IntIntMap(1024);
+                counts[d] = new IntIntMap();
+            }
+            int rows = 0;
+            try (SqlSession session = sqlSessionFactory.openSession(); Cursor<T> cursor = query.apply(session)) {
+                for (T row : cursor) {
+                    Aggregate.set(byId, counts, id.apply(row), keys.apply(row));
+                    rows++;
+                }
+            }
+            List<Integer> changed = aggregate.finishLoad(byId, counts);
+            if (!changed.isEmpty()) {
+                reload(aggregate, changed, byIds, id, keys);
+            }
+            log.info("{}统计聚合加载完成，{}条", name, rows);
+        } catch (Exception e) {
+            aggregate.failLoad();
+            log.warn("{}统计聚合加载失败，稍后重试：{}", name, e.getMessage());
+        }
+    }
+
+    private <T> void reload(Aggregate aggregate, List<Integer> ids, Function<List<Integer>, List<T>> byIds,
+                            Function<T, Integer> id, Function<T, int[]> keys) {
+        if (!aggregate.isActive()) {
+            return;
+        }
+        Map<Integer, int[]> current = new LinkedHashMap<>();
+        for (T row : byIds.apply(ids)) {
+            current.put(id.apply(row), keys.apply(row));
+        }
+        aggregate.apply(ids, current);
+    }
+
+    private JobOption buildEmpJob() {
+        List<int[]> rows = emp.counts(EMP_JOB);
+        List<Object> jobList = new ArrayList<>(rows.size());
+        List<Object> dataList = new ArrayList<>(rows.size());
+        for (int[] row : rows) {
+            jobList.add(label(JOBS, row[0]));
+            dataList.add((long) row[1]);
+        }
+        return new JobOption(Collections.unmodifiableList(jobList), Collections.unmodifiableList(dataList));
+    }
+
+    private List<Map<String, Object>> buildEmpGender() {
+        List<int[]> rows = emp.counts(EMP_GENDER);
+        rows.sort((a, b) -> Integer.compare(a[0], b[0]));
+        List<Map<String, Object>> list = new ArrayList<>(rows.size());
+        for (int[] row : rows) {
+            list.add(nameValue(row[0] == 1 ? "男性员工" : "女性员工", row[1]));
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    private List<Map<String, Object>> buildStudentDegree() {
+        List<int[]> rows = student.counts(STUDENT_DEGREE);
+        List<Map<String, Object>> list = new ArrayList<>(rows.size());
+        for (int[] row : rows) {
+            list.add(nameValue(label(DEGREES, row[0]), row[1]));
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    private static int[] empKeys(Emp e) {
+        return new int[]{key(e.getJob()), key(e.getGender())};
+    }
+
+    private static int[] studentKeys(Student s) {
+        return new int[]{key(s.getDegree()), key(s.getClazzId())};
+    }
+
+    private static int key(Integer value) {
+        return value == null ? NULL_KEY : value;
+    }
+
+    /**
+     * 职位名称，与原SQL中的case一致，未知编码为"其他"
+     */
+    public static String jobName(int job) {
+        return label(JOBS, job);
+    }
+
+    /**
+     * 学历名称，与原SQL中的case一致，未知编码为"其他"
+     */
+    public static String degreeName(int degree) {
+        return label(DEGREES, degree);
+    }
+
+    private static String label(String[] labels, int key) {
+        return key > 0 && key < labels.length ? labels[key] : "其他";
+    }
+
+    private static Map<String, Object> nameValue(String name, int value) {
+        Map<String, Object> map = new LinkedHashMap<>(4);
+        map.put("name", name);
+        map.put("value", (long) value);
+        return Collections.unmodifiableMap(map);
+    }
+
+    /*
+     * 按版本缓存的报表结果
+     * */
+    private static class Cached<T> {
+        private static final Cached<?> EMPTY = new Cached<>(-1, null);
+        private final long version;
+        private final T value;
+
+        private Cached(long version, T value) {
+            this.version = version;
+            this.value = value;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Cached<T> empty() {
+            return (Cached<T>) EMPTY;
+        }
+    }
+
+    /*
+     * 一张表的聚合：每个维度一张ID -> 取值的表和一张取值 -> 人数的表
+     * */
+    private static class Aggregate {
+        private final int dimensions;
+        private IntIntMap[] byId;
+        private IntIntMap[] counts;
+        private boolean ready;
+        private boolean loading;
+        //加载期间发生变更的ID，加载完成后需重新查询
+        private final Set<Integer> pending = new LinkedHashSet<>();
+        //每次计数变化加一，未就绪时为-1
+        private volatile long version = -1;
+        private long nextVersion;
+
+        private Aggregate(int dimensions) {
+            this.dimensions = dimensions;
+        }
+
+        private synchronized boolean isReady() {
+            return ready;
+        }
+
+        private synchronized boolean isActive() {
+            return ready || loading;
+        }
+
+        private long version() {
+            return version;
+        }
+
+        private synchronized void beginLoad() {
+            loading = true;
+            pending.clear();
+        }
+
+        private synchronized List<Integer> finishLoad(IntIntMap[] loadedById, IntIntMap[] loadedCounts) {
+            byId = loadedById;
+            counts = loadedCounts;
+            ready = true;
+            loading = false;
+            version = ++nextVersion;
+            List<Integer> changed = new ArrayList<>(pending);
+            pending.clear();
+            return changed;
+        }
+
+        private synchronized void failLoad() {
+            loading = false;
+            pending.clear();
+        }
+
+        private synchronized void reset() {
+            byId = null;
+            counts = null;
+            ready = false;
+            version = -1;
+        }
+
+        /*
+         * 应用变更：current中有的ID按新值计数，没有的视为已删除；加载期间同时记录ID，加载完成后重新查询
+         * */
+        private synchronized void apply(List<Integer> ids, Map<Integer, int[]> current) {
+            if (loading) {
+                pending.addAll(ids);
+            }
+            if (!ready) {
+                return;
+            }
+            for (Integer id : ids) {
+                for (int d = 0; d < dimensions; d++) {
+                    int old = byId[d].remove(id, IntIntMap.FREE);
+                    if (old != IntIntMap.FREE) {
+                        counts[d].addTo(old, -1);
+                    }
+                }
+                int[] keys = current.get(id);
+                if (keys != null) {
+                    set(byId, counts, id, keys);
+                }
+            }
+            version = ++nextVersion;
+        }
+
+        private static void set(IntIntMap[] byId, IntIntMap[] counts, int id, int[] keys) {
+            for (int d = 0; d < keys.length; d++) {
+                int old = byId[d].put(id, keys[d], IntIntMap.FREE);
+                if (old != IntIntMap.FREE) {
+                    counts[d].addTo(old, -1);
+                }
+                counts[d].addTo(keys[d], 1);
+            }
+        }
+
+        /*
+         * 某个取值的人数，未就绪时返回-1
+         * */
+        private synchronized int count(int dimension, int key) {
+            return ready ? counts[dimension].get(key, 0) : -1;
+        }
+
+        /*
+         * 某个维度取值 -> 人数的副本，未就绪时返回null
+         * */
+        private synchronized IntIntMap snapshot(int dimension) {
+            if (!ready) {
+                return null;
+            }
+            IntIntMap copy = new IntIntMap(counts[dimension].size());
+            counts[dimension].forEach((key, count) -> copy.put(key, count, 0));
+            return copy;
+        }
+
+        /*
+         * 某个维度的(取值, 人数)，按人数升序、取值升序
+         * */
+        private synchronized List<int[]> counts(int dimension) {
+            List<int[]> rows = new ArrayList<>(counts[dimension].size());
+            counts[dimension].forEach((key, count) -> rows.add(new int[]{key, count}));
+            rows.sort((a, b) -> a[1] != b[1] ? Integer.compare(a[1], b[1]) : Integer.compare(a[0], b[0]));
+            return rows;
+        }
+
+        /*
+         * 与SQL分组统计结果比较，k为取值，v为人数
+         * */
+        private synchronized boolean matches(int dimension, List<Map<String, Object>> rows) {
+            IntIntMap expected = counts[dimension];
+            if (expected.size() != rows.size()) {
+                return false;
+            }
+            for (Map<String, Object> row : rows) {
+                Object k = row.get("k");
+                int key = k == null ? NULL_KEY : ((Number) k).intValue();
+                if (expected.get(key, 0) != ((Number) row.get("v")).intValue()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.utils;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 已校验令牌缓存
+ * 以令牌的SHA-256摘要为key缓存解析后的Claims，令牌到达自身exp时失效，超出容量时按最近访问时间(LRU)淘汰
+ */
+@Slf4j
+@Component
+public class TokenCache implements MeterBinder {
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    //最大缓存令牌数
+    @Value("${tlias.token-cache.max-size:1024}")
+    private int maxSize;
+
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * 解析令牌，命中缓存时跳过签名校验
+     * @param token JWT令牌
+     * @return 解析后的Claims对象
+     */
+    public Claims parse(String token) {
+        String key = digest(token);
+        long now = System.currentTimeMillis();
+
+        Entry entry = cache.get(key);
+        if (entry != null) {
+            if (entry.expireAt > now) {
+                entry.lastAccess = now;
+                hits.increment();
+                return entry.claims;
+            }
+            //令牌已过期，移除后按未命中处理（重新解析时会抛出过期异常）
+            cache.remove(key, entry);
+        }
+
+        misses.increment();
+        Claims claims = JwtUtils.parseToken(token);
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            cache.put(key, new Entry(claims, expiration.getTime(), now));
+            if (cache.size() > maxSize) {
+                evict(now);
+            }
+        }
+        return claims;
+    }
+
+    /*
+     * 淘汰过期令牌，仍超出容量时再按最近访问时间淘汰最久未使用的一批
+     * 只在未命中写入时触发，一次多淘汰10%，避免每次写入都排序
+     */
+    private synchronized void evict(long now) {
+        cache.entrySet().removeIf(e -> {
+            if (e.getValue().expireAt <= now) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        });
+
+        int overflow = cache.size() - maxSize;
+        if (overflow <= 0) {
+            return;
+        }
+        List<Map.Entry<String, Entry>> entries = new ArrayList<>(cache.entrySet());
+        entries.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+        int toRemove = Math.min(entries.size(), overflow + maxSize / 10);
+        for (int i = 0; i < toRemove; i++) {
+            Map.Entry<String, Entry> e = entries.get(i);
+            if (cache.remove(e.getKey(), e.getValue())) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    /*
+     * 注册到actuator的metrics中，/actuator/metrics/token.cache.requests
+     * */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("token.cache.size", cache, Map::size).register(registry);
+        FunctionCounter.builder("token.cache.requests", hits, LongAdder::sum).tag("result", "hit").register(registry);
+        FunctionCounter.builder("token.cache.requests", misses, LongAdder::sum).tag("result", "miss").register(registry);
+        FunctionCounter.builder("token.cache.evictions", evictions, LongAdder::sum).register(registry);
+    }
+
+    private static class Entry {
+        private final Claims claims;
+        private final long expireAt;
+        private volatile long lastAccess;
+
+        private Entry(Claims claims, long expireAt, long lastAccess) {
+            this.claims = claims;
+            this.expireAt = expireAt;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
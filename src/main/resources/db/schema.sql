@@ -0,0 +1,30 @@
+-- 建表、建索引脚本，可重复执行；上线或升级时手动执行：mysql -uroot -p tlias < schema.sql
+-- 也可用spring.sql.init.mode=always在启动时执行（默认never）
+
+-- 学员每日汇总：每天每个(班级, 学历)一行，未分班、未填学历记为0
+CREATE TABLE IF NOT EXISTS report_student_daily (
+    stat_date DATE NOT NULL COMMENT '统计日期',
+    clazz_id INT UNSIGNED NOT NULL COMMENT '班级ID，0为未分班',
+    degree TINYINT UNSIGNED NOT NULL COMMENT '学历，0为未填写',
+    headcount INT UNSIGNED NOT NULL COMMENT '当天结束时的学员人数',
+    enrolled INT UNSIGNED NOT NULL COMMENT '当天新增的学员数（创建时间）',
+    graduated INT UNSIGNED NOT NULL COMMENT '毕业时间为当天的学员数',
+    PRIMARY KEY (stat_date, clazz_id, degree)
+) COMMENT '学员每日汇总';
+
+-- 员工每日汇总：每天每个职位一行，没有职位记为0
+CREATE TABLE IF NOT EXISTS report_emp_daily (
+    stat_date DATE NOT NULL COMMENT '统计日期',
+    job TINYINT UNSIGNED NOT NULL COMMENT '职位，0为没有职位',
+    headcount INT UNSIGNED NOT NULL COMMENT '当天结束时的员工人数（按入职日期）',
+    hired INT UNSIGNED NOT NULL COMMENT '当天入职的员工数',
+    PRIMARY KEY (stat_date, job)
+) COMMENT '员工每日汇总';
+
+-- 操作日志按(operate_time, id)倒序分页（游标分页、归档重叠统计）使用的索引，MySQL不支持CREATE INDEX IF NOT EXISTS，已存在时跳过
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'ALTER TABLE operate_log ADD INDEX idx_operate_log_time_id (operate_time, id)', 'SELECT 1')
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'operate_log' AND index_name = 'idx_operate_log_time_id');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
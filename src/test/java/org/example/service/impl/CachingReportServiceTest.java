@@ -0,0 +1,182 @@
+package org.example.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.event.DataChangeEvent;
+import org.example.pojo.JobOption;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 报表缓存：并发未命中只查询一次，TTL内命中，相关表写入后失效，查询失败时等待的请求一起失败
+ */
+class CachingReportServiceTest {
+
+    private static final int THREADS = 8;
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CachingReportService service = service(n -> {
+            started.countDown();
+            await(release);
+            return new JobOption(List.of("讲师"), List.of(n));
+        });
+
+        List<Future<JobOption>> futures = new ArrayList<>();
+        futures.add(pool.submit(service::getEmpJobData));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i < THREADS; i++) {
+            futures.add(pool.submit(service::getEmpJobData));
+        }
+        waitUntil(() -> requests("coalesced") == THREADS - 1);
+        release.countDown();
+
+        JobOption first = futures.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<JobOption> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).isSameAs(first);
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(requests("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void cachedUntilRelatedTableChanges() {
+        CachingReportService service = service(n -> new JobOption(List.of("讲师"), List.of(n)));
+
+        JobOption first = service.getEmpJobData();
+        assertThat(service.getEmpJobData()).isSameAs(first);
+        service.onDataChange(new DataChangeEvent(DataChangeEvent.STUDENT, List.of(1)));
+        assertThat(service.getEmpJobData()).isSameAs(first);
+        assertThat(loads).hasValue(1);
+
+        service.onDataChange(new DataChangeEvent(DataChangeEvent.EMP, List.of(1)));
+        assertThat(service.getEmpJobData().getDataList()).containsExactly(2);
+        assertThat(requests("hit")).isEqualTo(2);
+    }
+
+    @Test
+    void writeDuringLoadIsNotCached() {
+        CachingReportService[] holder = new CachingReportService[1];
+        holder[0] = service(n -> {
+            if (n == 1) {
+                holder[0].onDataChange(new DataChangeEvent(DataChangeEvent.EMP, List.of(1)));
+            }
+            return new JobOption(List.of("讲师"), List.of(n));
+        });
+
+        assertThat(holder[0].getEmpJobData().getDataList()).containsExactly(1);
+        assertThat(holder[0].getEmpJobData().getDataList()).containsExactly(2);
+        assertThat(holder[0].getEmpJobData().getDataList()).containsExactly(2);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void failedLoadFailsWaitersAndNextCallRetries() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CachingReportService service = service(n -> {
+            if (n == 1) {
+                started.countDown();
+                await(release);
+                //Error也要结束等待中的请求
+                throw new Error("查询失败");
+            }
+            return new JobOption(List.of("讲师"), List.of(n));
+        });
+
+        List<Future<JobOption>> futures = new ArrayList<>();
+        futures.add(pool.submit(service::getEmpJobData));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i < THREADS; i++) {
+            futures.add(pool.submit(service::getEmpJobData));
+        }
+        waitUntil(() -> requests("coalesced") == THREADS - 1);
+        release.countDown();
+
+        for (Future<JobOption> future : futures) {
+            assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class).hasCauseInstanceOf(Error.class);
+        }
+        assertThat(service.getEmpJobData().getDataList()).containsExactly(2);
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        CachingReportService service = service(n -> new JobOption(List.of("讲师"), List.of(n)));
+        ReflectionTestUtils.setField(service, "enabled", false);
+
+        service.getEmpJobData();
+        service.getEmpJobData();
+
+        assertThat(loads).hasValue(2);
+    }
+
+    //职位统计由loader按第几次查询生成，其他报表不使用
+    private CachingReportService service(IntFunction<JobOption> loader) {
+        ReportServiceImpl delegate = new ReportServiceImpl() {
+            @Override
+            public JobOption getEmpJobData() {
+                return loader.apply(loads.incrementAndGet());
+            }
+        };
+        CachingReportService service = new CachingReportService();
+        ReflectionTestUtils.setField(service, "enabled", true);
+        for (String ttl : List.of("empJobTtl", "empGenderTtl", "studentCountTtl", "studentDegreeTtl")) {
+            ReflectionTestUtils.setField(service, ttl, Duration.ofMinutes(1));
+        }
+        ReflectionTestUtils.setField(service, "dashboardThreads", 1);
+        ReflectionTestUtils.setField(service, "dashboardQueueCapacity", 1);
+        ReflectionTestUtils.setField(service, "delegate", delegate);
+        service.init();
+        service.bindTo(registry);
+        return service;
+    }
+
+    private long requests(String result) {
+        return (long) registry.get("report.cache.requests").tags("report", "empJobData", "result", result)
+                .functionCounter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("等待超时").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
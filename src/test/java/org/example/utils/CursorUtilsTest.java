@@ -0,0 +1,74 @@
+package org.example.utils;
+
+import org.example.exception.BadRequestException;
+import org.example.pojo.PageCursor;
+import org.example.pojo.PageResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 续传令牌编解码与多查一条生成下一页令牌
+ */
+class CursorUtilsTest {
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2024, 3, 1, 8, 30, 15, 123_000_000);
+
+    @Test
+    void encodeThenDecodeReturnsSamePosition() {
+        PageCursor cursor = CursorUtils.decode(CursorUtils.encode(TIME, 42));
+
+        assertThat(cursor.getTime()).isEqualTo(TIME);
+        assertThat(cursor.getId()).isEqualTo(42);
+    }
+
+    @Test
+    void emptyCursorMeansFirstPage() {
+        assertThat(CursorUtils.decode(null)).isNull();
+        assertThat(CursorUtils.decode("")).isNull();
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() {
+        assertThatThrownBy(() -> CursorUtils.decode("not a cursor!")).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> CursorUtils.decode(CursorUtils.encode(TIME, 1).substring(3)))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> CursorUtils.decode("MjAyNC0wMy0wMQ")).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void extraRowProducesNextCursorFromLastReturnedRow() {
+        List<int[]> rows = rows(4);
+
+        PageResult<int[]> page = CursorUtils.toPageResult(rows, 3, 10L, r -> TIME.minusMinutes(r[0]), r -> r[0]);
+
+        assertThat(page.getRows()).hasSize(3);
+        assertThat(page.getTotal()).isEqualTo(10L);
+        PageCursor next = CursorUtils.decode(page.getNextCursor());
+        assertThat(next.getId()).isEqualTo(3);
+        assertThat(next.getTime()).isEqualTo(TIME.minusMinutes(3));
+    }
+
+    @Test
+    void lastPageHasNoNextCursor() {
+        PageResult<int[]> page = CursorUtils.toPageResult(rows(3), 3, null, r -> TIME, r -> r[0]);
+
+        assertThat(page.getRows()).hasSize(3);
+        assertThat(page.getNextCursor()).isNull();
+        assertThat(page.getTotal()).isNull();
+    }
+
+    //id为1..n的记录
+    private static List<int[]> rows(int n) {
+        List<int[]> rows = new ArrayList<>();
+        for (int i = 1; i <= n; i++) {
+            rows.add(new int[]{i});
+        }
+        return rows;
+    }
+}
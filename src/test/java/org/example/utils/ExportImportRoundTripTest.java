@@ -0,0 +1,98 @@
+package org.example.utils;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ExportWriter写出的文件由ImportReader读回，各列文本与写出的值一致
+ * 包括需要加引号的CSV字段、防公式注入的单引号前缀、空单元格和数值
+ */
+class ExportImportRoundTripTest {
+
+    private static final Object[] HEADER = {"姓名", "学号", "备注", "人数", "时间"};
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @ValueSource(strings = {ExportWriter.CSV, ExportWriter.XLSX})
+    void rowsReadBackAsWritten(String format) throws IOException {
+        List<Object[]> rows = List.of(
+                new Object[]{"张三", "2024000001", "普通文本", 12, LocalDateTime.of(2024, 3, 1, 8, 30, 5)},
+                new Object[]{"李, 四", "2024000002", "含\"引号\"和\r\n换行", 0, null},
+                new Object[]{"=HYPERLINK(\"http://x\")", "+86", "-1", -3, null},
+                new Object[]{"@SUM(A1)", "\tTab", "'已有单引号", 1234567890L, null},
+                new Object[]{"''=x", "'=y", "", null, null});
+        Path file = write(format, rows);
+
+        List<List<String>> read = read(file, format);
+
+        assertThat(read).hasSize(rows.size() + 1);
+        assertThat(read.get(0)).containsExactly("姓名", "学号", "备注", "人数", "时间");
+        for (int i = 0; i < rows.size(); i++) {
+            assertThat(read.get(i + 1)).as("row %d", i + 1).containsExactlyElementsOf(texts(rows.get(i)));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {ExportWriter.CSV, ExportWriter.XLSX})
+    void manyRowsStreamInOrder(String format) throws IOException {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            rows.add(new Object[]{"学员" + i, String.format("%010d", i), "备注," + i, i, null});
+        }
+        Path file = write(format, rows);
+
+        List<List<String>> read = read(file, format);
+
+        assertThat(read).hasSize(rows.size() + 1);
+        assertThat(read.get(5000)).containsExactly("学员4999", "0000004999", "备注,4999", "4999", "");
+    }
+
+    private Path write(String format, List<Object[]> rows) throws IOException {
+        Path file = dir.resolve("export." + format);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            ExportWriter writer = ExportWriter.of(format, out);
+            writer.row(HEADER.clone());
+            for (Object[] row : rows) {
+                writer.row(row.clone());
+            }
+            writer.finish();
+        }
+        return file;
+    }
+
+    private static List<List<String>> read(Path file, String format) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        try (ImportReader reader = ImportReader.open(file, format)) {
+            List<String> row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    //写出的值对应的文本：null为空字符串，时间为yyyy-MM-dd HH:mm:ss
+    private static List<String> texts(Object[] row) {
+        String[] texts = new String[row.length];
+        for (int i = 0; i < row.length; i++) {
+            Object value = row[i];
+            texts[i] = value == null ? "" : value instanceof LocalDateTime
+                    ? value.toString().replace('T', ' ') : value.toString();
+        }
+        return Arrays.asList(texts);
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * int到int哈希表：基本操作、addTo、删除后冲突链仍可查询，随机操作与HashMap一致
+ */
+class IntIntMapTest {
+
+    @Test
+    void putGetAndRemove() {
+        IntIntMap map = new IntIntMap();
+
+        assertThat(map.put(1, 10, -1)).isEqualTo(-1);
+        assertThat(map.put(1, 11, -1)).isEqualTo(10);
+        assertThat(map.put(-5, 0, -1)).isEqualTo(-1);
+        assertThat(map.get(1, -1)).isEqualTo(11);
+        assertThat(map.get(-5, -1)).isZero();
+        assertThat(map.get(2, -1)).isEqualTo(-1);
+        assertThat(map.containsKey(-5)).isTrue();
+        assertThat(map.size()).isEqualTo(2);
+
+        assertThat(map.remove(1, -1)).isEqualTo(11);
+        assertThat(map.remove(1, -1)).isEqualTo(-1);
+        assertThat(map.containsKey(1)).isFalse();
+        assertThat(map.size()).isEqualTo(1);
+
+        map.clear();
+        assertThat(map.size()).isZero();
+        assertThat(map.containsKey(-5)).isFalse();
+    }
+
+    @Test
+    void addToTreatsMissingAsZeroAndRemovesZero() {
+        IntIntMap map = new IntIntMap();
+
+        assertThat(map.addTo(7, 3)).isEqualTo(3);
+        assertThat(map.addTo(7, 2)).isEqualTo(5);
+        assertThat(map.addTo(7, -5)).isZero();
+        assertThat(map.containsKey(7)).isFalse();
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void freeMarkerIsNotAKey() {
+        IntIntMap map = new IntIntMap();
+
+        assertThatThrownBy(() -> map.put(IntIntMap.FREE, 1, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(map.get(IntIntMap.FREE, -1)).isEqualTo(-1);
+        assertThat(map.containsKey(IntIntMap.FREE)).isFalse();
+    }
+
+    @Test
+    void removeKeepsCollidingKeysReachable() {
+        //容量较小、键较多，删除时需要把后续冲突的键前移
+        IntIntMap map = new IntIntMap(4);
+        for (int key = 0; key < 64; key++) {
+            map.put(key, key * 2, -1);
+        }
+        for (int key = 0; key < 64; key += 3) {
+            map.remove(key, -1);
+        }
+
+        for (int key = 0; key < 64; key++) {
+            assertThat(map.get(key, -1)).as("key %d", key).isEqualTo(key % 3 == 0 ? -1 : key * 2);
+        }
+    }
+
+    @Test
+    void forEachVisitsEveryEntry() {
+        IntIntMap map = new IntIntMap();
+        for (int key = 1; key <= 100; key++) {
+            map.put(key, -key, 0);
+        }
+
+        Map<Integer, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+
+        assertThat(visited).hasSize(100).containsEntry(1, -1).containsEntry(100, -100);
+    }
+
+    @Test
+    void randomOperationsMatchHashMap() {
+        Random random = new Random(20240301);
+        IntIntMap map = new IntIntMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(2000) - 1000;
+            int value = random.nextInt(100) - 50;
+            switch (random.nextInt(4)) {
+                case 0:
+                    assertThat(map.put(key, value, IntIntMap.FREE)).isEqualTo(expected.getOrDefault(key, IntIntMap.FREE));
+                    expected.put(key, value);
+                    break;
+                case 1:
+                    Integer old = expected.remove(key);
+                    assertThat(map.remove(key, IntIntMap.FREE)).isEqualTo(old == null ? IntIntMap.FREE : old);
+                    break;
+                case 2:
+                    int sum = expected.getOrDefault(key, 0) + value;
+                    if (sum == 0) {
+                        expected.remove(key);
+                    } else {
+                        expected.put(key, sum);
+                    }
+                    assertThat(map.addTo(key, value)).isEqualTo(sum);
+                    break;
+                default:
+                    assertThat(map.get(key, IntIntMap.FREE)).isEqualTo(expected.getOrDefault(key, IntIntMap.FREE));
+            }
+            assertThat(map.size()).isEqualTo(expected.size());
+        }
+        Map<Integer, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertThat(actual).isEqualTo(expected);
+    }
+}
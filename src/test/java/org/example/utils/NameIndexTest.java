@@ -0,0 +1,109 @@
+package org.example.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 名称子串索引：查询结果与逐个String.contains一致，增量变更与加载期间的变更
+ */
+class NameIndexTest {
+
+    @Test
+    void notReadyUntilLoaded() {
+        NameIndex index = new NameIndex();
+
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.search("张")).isNull();
+
+        index.load(Map.of(1, "张三"));
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.search("张")).containsExactly(1);
+    }
+
+    @Test
+    void searchMatchesSubstringsCaseInsensitively() {
+        NameIndex index = new NameIndex();
+        index.load(Map.of(1, "张三丰", 2, "张三", 3, "李四", 4, "Tom Lee", 5, "李明明李"));
+
+        assertThat(index.search("张三")).containsExactlyInAnyOrder(1, 2);
+        assertThat(index.search("三丰")).containsExactly(1);
+        assertThat(index.search("张三丰")).containsExactly(1);
+        assertThat(index.search("四")).containsExactly(3);
+        assertThat(index.search("lee")).containsExactly(4);
+        assertThat(index.search("TOM")).containsExactly(4);
+        assertThat(index.search("王")).isEmpty();
+        assertThat(index.search("张丰")).isEmpty();
+        //双字"明李""李明"都在名称中出现，但不是连续子串
+        assertThat(index.search("明李明")).isEmpty();
+    }
+
+    @Test
+    void applyUpdatesAndRemovesNames() {
+        NameIndex index = new NameIndex();
+        index.load(Map.of(1, "张三", 2, "李四"));
+
+        index.apply(List.of(1, 2), Map.of(1, "王五"));
+
+        assertThat(index.search("张三")).isEmpty();
+        assertThat(index.search("王五")).containsExactly(1);
+        assertThat(index.search("李")).isEmpty();
+    }
+
+    @Test
+    void changesBeforeLoadAreReturnedForRequery() {
+        NameIndex index = new NameIndex();
+
+        index.apply(List.of(7, 8), Map.of(7, "赵六"));
+        List<Integer> changed = index.load(Map.of(1, "张三"));
+
+        assertThat(changed).containsExactly(7, 8);
+        assertThat(index.search("赵")).isEmpty();
+        assertThat(index.load(Map.of(1, "张三"))).isEmpty();
+    }
+
+    @Test
+    void resetFallsBackToNotReady() {
+        NameIndex index = new NameIndex();
+        index.load(Map.of(1, "张三"));
+
+        index.reset();
+
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.search("张")).isNull();
+    }
+
+    @Test
+    void randomNamesMatchBruteForce() {
+        Random random = new Random(20240301);
+        String alphabet = "张王李赵刘陈明华丽军";
+        Map<Integer, String> names = new HashMap<>();
+        for (int id = 1; id <= 2000; id++) {
+            names.put(id, randomString(random, alphabet, 2 + random.nextInt(3)));
+        }
+        NameIndex index = new NameIndex();
+        index.load(names);
+
+        for (int i = 0; i < 500; i++) {
+            String keyword = randomString(random, alphabet, 1 + random.nextInt(3));
+            Set<Integer> expected = names.entrySet().stream().filter(e -> e.getValue().contains(keyword))
+                    .map(Map.Entry::getKey).collect(Collectors.toSet());
+            assertThat(index.search(keyword)).as(keyword).isEqualTo(expected);
+        }
+    }
+
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+}
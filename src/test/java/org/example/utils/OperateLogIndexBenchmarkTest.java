@@ -0,0 +1,190 @@
+package org.example.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.example.mapper.OperateLogMapper;
+import org.example.pojo.OperateLog;
+import org.example.pojo.OperateLogQueryParam;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * /log/search的内存索引与数据库条件查询的耗时对比
+ * 数据库为H2内存库（MySQL模式），operate_log上建与线上相同的索引；类名条件分别按后缀LIKE扫描和按全限定名IN查询
+ * 默认跳过，运行：mvn test -Dtest=OperateLogIndexBenchmarkTest -Dbenchmark=true [-Dbenchmark.size=100000]
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OperateLogIndexBenchmarkTest {
+
+    private static final String URL = "jdbc:h2:mem:log_benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;QUERY_CACHE_SIZE=0";
+    private static final String[] CLASSES = {"org.example.controller.EmpController", "org.example.controller.StudentController",
+            "org.example.controller.ClazzController", "org.example.controller.DeptController"};
+    private static final String[] METHODS = {"save", "update", "delete", "list", "getInfo"};
+    private static final int ROUNDS = 50;
+
+    private static int size;
+    private static Connection keepAlive;
+    private static SqlSession session;
+    private static OperateLogMapper mapper;
+    private static OperateLogIndex index;
+    private static LocalDate lastDay;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        size = Integer.getInteger("benchmark.size", 100_000);
+        keepAlive = DriverManager.getConnection(URL, "sa", "");
+        try (Statement st = keepAlive.createStatement()) {
+            st.execute("create table emp(id int primary key, name varchar(10))");
+            st.execute("create table operate_log(id int auto_increment primary key, operate_emp_id int, operate_time datetime,"
+                    + " class_name varchar(100), method_name varchar(100), method_params varchar(2000), return_value varchar(2000), cost_time bigint)");
+            st.execute("create index idx_operate_log_emp on operate_log(operate_emp_id)");
+            st.execute("create index idx_operate_log_time on operate_log(operate_time, id)");
+            st.execute("create index idx_operate_log_class on operate_log(class_name)");
+        }
+
+        //按ID升序生成日志，约每10秒一条
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<OperateLog> logs = new ArrayList<>(size);
+        try (PreparedStatement ps = keepAlive.prepareStatement("insert into operate_log(id, operate_emp_id, operate_time, class_name,"
+                + " method_name, cost_time) values (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < size; i++) {
+                OperateLog operateLog = new OperateLog();
+                operateLog.setId(i + 1);
+                operateLog.setOperateTime(start.plusSeconds(i * 10L));
+                operateLog.setOperateEmpId(1 + random.nextInt(50));
+                operateLog.setClassName(CLASSES[random.nextInt(CLASSES.length)]);
+                operateLog.setMethodName(METHODS[random.nextInt(METHODS.length)]);
+                operateLog.setCostTime((long) random.nextInt(200));
+                logs.add(operateLog);
+                ps.setInt(1, operateLog.getId());
+                ps.setInt(2, operateLog.getOperateEmpId());
+                ps.setTimestamp(3, Timestamp.valueOf(operateLog.getOperateTime()));
+                ps.setString(4, operateLog.getClassName());
+                ps.setString(5, operateLog.getMethodName());
+                ps.setLong(6, operateLog.getCostTime());
+                ps.addBatch();
+                if (i % 1000 == 999) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        lastDay = logs.get(size - 1).getOperateTime().toLocalDate();
+
+        Configuration configuration = new Configuration(new Environment("benchmark", new JdbcTransactionFactory(),
+                new UnpooledDataSource("org.h2.Driver", URL, "sa", "")));
+        configuration.setMapUnderscoreToCamelCase(true);
+        //关闭一级缓存，每次都实际执行查询
+        configuration.setLocalCacheScope(LocalCacheScope.STATEMENT);
+        configuration.addMapper(OperateLogMapper.class);
+        session = new SqlSessionFactoryBuilder().build(configuration).openSession();
+        mapper = session.getMapper(OperateLogMapper.class);
+
+        index = new OperateLogIndex(size);
+        index.addAll(logs);
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        session.close();
+        keepAlive.close();
+    }
+
+    @Test
+    void compareWithDatabaseScan() {
+        run("操作人", param(17, null, null, null, null, null));
+        run("操作人+类名+最近一周", param(17, "EmpController", null, lastDay.minusDays(7), lastDay, null));
+        run("类名", param(null, "StudentController", null, null, null, null));
+        run("方法名", param(null, null, "delete", null, null, null));
+        run("最小耗时", param(null, null, null, null, null, 190L));
+    }
+
+    private static OperateLogQueryParam param(Integer empId, String className, String methodName,
+                                              LocalDate begin, LocalDate end, Long minCostTime) {
+        OperateLogQueryParam param = new OperateLogQueryParam();
+        param.setOperateEmpId(empId);
+        param.setClassName(className);
+        param.setMethodName(methodName);
+        param.setBegin(begin);
+        param.setEnd(end);
+        param.setMinCostTime(minCostTime);
+        return param;
+    }
+
+    /*
+     * 三种方式各取第一页（10条）和总数：索引查询后按ID取行；后缀LIKE条件查询；类名解析为全限定名后条件查询
+     * */
+    private static void run(String name, OperateLogQueryParam param) {
+        LongSupplier byIndex = () -> {
+            OperateLogIndex.Hits hits = index.search(param, 0, 10);
+            if (!hits.getIds().isEmpty()) {
+                mapper.selectByIds(hits.getIds());
+            }
+            return hits.getTotal();
+        };
+        OperateLogQueryParam likeParam = copy(param, null);
+        LongSupplier byLike = () -> {
+            mapper.search(likeParam, Integer.MAX_VALUE, 0L, 10);
+            return mapper.countSearch(likeParam, Integer.MAX_VALUE);
+        };
+        OperateLogQueryParam inParam = copy(param, param.getClassName() == null ? null
+                : Arrays.stream(CLASSES).filter(c -> c.endsWith("." + param.getClassName())).collect(Collectors.toList()));
+        LongSupplier byIn = () -> {
+            mapper.search(inParam, Integer.MAX_VALUE, 0L, 10);
+            return mapper.countSearch(inParam, Integer.MAX_VALUE);
+        };
+
+        long total = byIndex.getAsLong();
+        assertThat(byLike.getAsLong()).as(name).isEqualTo(total);
+        assertThat(byIn.getAsLong()).as(name).isEqualTo(total);
+        log.info("{}：{}条日志，命中{}条，索引{}us/次，后缀LIKE扫描{}us/次，全限定名IN{}us/次", name, size, total,
+                time(byIndex), time(byLike), time(byIn));
+    }
+
+    private static OperateLogQueryParam copy(OperateLogQueryParam param, List<String> classNames) {
+        OperateLogQueryParam copy = param(param.getOperateEmpId(), param.getClassName(), param.getMethodName(),
+                param.getBegin(), param.getEnd(), param.getMinCostTime());
+        copy.setClassNames(classNames);
+        return copy;
+    }
+
+    /*
+     * 预热后取平均耗时(微秒)
+     * */
+    private static long time(LongSupplier query) {
+        for (int i = 0; i < ROUNDS; i++) {
+            query.getAsLong();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            query.getAsLong();
+        }
+        return (System.nanoTime() - start) / 1000 / ROUNDS;
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 拼音前缀树：全拼、首字母、原文前缀查询，多音字，结果顺序与数量上限，增量变更
+ */
+class PinyinTrieTest {
+
+    @Test
+    void keysContainFullPinyinInitialsAndText() {
+        assertThat(PinyinTrie.keys("张三")).contains("张三", "zhangsan", "zs");
+        //非汉字按原样保留，只去掉空白
+        assertThat(PinyinTrie.keys("Tom Lee")).containsExactlyInAnyOrder("tom lee", "tomlee");
+    }
+
+    @Test
+    void polyphonicCharactersExpandToEveryReading() {
+        assertThat(PinyinTrie.keys("曾")).contains("zeng", "ceng");
+    }
+
+    @Test
+    void searchByPinyinInitialsOrText() {
+        PinyinTrie trie = new PinyinTrie();
+        trie.load(Map.of(1, "张三", 2, "张三丰", 3, "李四", 4, "曾华"));
+
+        assertThat(ids(trie.search("zhangs", 10))).containsExactlyInAnyOrder(1, 2);
+        assertThat(ids(trie.search("zsf", 10))).containsExactly(2);
+        assertThat(ids(trie.search("张三丰", 10))).containsExactly(2);
+        assertThat(ids(trie.search("LS", 10))).containsExactly(3);
+        assertThat(ids(trie.search("ceng", 10))).containsExactly(4);
+        assertThat(ids(trie.search("zenghua", 10))).containsExactly(4);
+        assertThat(ids(trie.search("wang", 10))).isEmpty();
+        assertThat(trie.search("zs", 10).get(0).getName()).isIn("张三", "张三丰");
+    }
+
+    @Test
+    void shorterKeysFirstAndAtMostLimit() {
+        PinyinTrie trie = new PinyinTrie();
+        trie.load(Map.of(1, "张三丰", 2, "张三", 3, "张", 4, "张三三"));
+
+        assertThat(ids(trie.search("zhang", 10)).get(0)).isEqualTo(3);
+        assertThat(ids(trie.search("zhangsan", 10)).get(0)).isEqualTo(2);
+        assertThat(trie.search("z", 2)).hasSize(2);
+    }
+
+    @Test
+    void applyReplacesAndRemovesKeys() {
+        PinyinTrie trie = new PinyinTrie();
+        trie.load(Map.of(1, "张三", 2, "李四"));
+
+        trie.apply(List.of(1, 2), Map.of(1, "王五"));
+
+        assertThat(trie.search("zhang", 10)).isEmpty();
+        assertThat(trie.search("ls", 10)).isEmpty();
+        assertThat(ids(trie.search("ww", 10))).containsExactly(1);
+        assertThat(trie.search("ww", 10).get(0).getName()).isEqualTo("王五");
+    }
+
+    @Test
+    void emptyUntilLoadedAndChangesBeforeLoadAreReturned() {
+        PinyinTrie trie = new PinyinTrie();
+        trie.apply(List.of(5), Map.of(5, "赵六"));
+
+        assertThat(trie.isReady()).isFalse();
+        assertThat(trie.search("z", 10)).isEmpty();
+        assertThat(trie.load(Map.of(1, "张三"))).containsExactly(5);
+        assertThat(trie.isReady()).isTrue();
+
+        trie.reset();
+        assertThat(trie.isReady()).isFalse();
+        assertThat(trie.search("zs", 10)).isEmpty();
+    }
+
+    private static List<Integer> ids(List<PinyinTrie.Match> matches) {
+        return matches.stream().map(PinyinTrie.Match::getId).collect(Collectors.toList());
+    }
+}